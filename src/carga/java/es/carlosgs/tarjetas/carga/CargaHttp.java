@@ -0,0 +1,144 @@
+package es.carlosgs.tarjetas.carga;
+
+import es.carlosgs.tarjetas.TarjetasApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de carga HTTP de la API con hilos de plataforma y con hilos virtuales
+ * Para cada modo arranca la aplicación en un puerto libre (spring.threads.virtual.enabled=false/true),
+ * lanza carga.clientes clientes concurrentes que piden carga.ruta sin pausa durante carga.duracion
+ * (después de carga.calentamiento, que no se mide) y muestra las peticiones por segundo y los percentiles de latencia
+ * Cada modo se repite con cada tamaño del pool de conexiones de carga.pools: si con hilos virtuales el límite
+ * pasa a ser el pool y no los hilos de Tomcat, las peticiones por segundo crecen con el pool en ese modo
+ * mvn -Pcarga verify -DskipTests -Dcarga.clientes=2000 -Dcarga.duracion=PT1M -Dcarga.pools=10,50,100
+ */
+public final class CargaHttp {
+  private static final int CLIENTES = Integer.getInteger("carga.clientes", 1000);
+  private static final Duration DURACION = Duration.parse(System.getProperty("carga.duracion", "PT30S"));
+  private static final Duration CALENTAMIENTO = Duration.parse(System.getProperty("carga.calentamiento", "PT10S"));
+  // La consulta del listado no está en caché: cada petición espera a la base de datos
+  private static final String RUTA = System.getProperty("carga.ruta", "/api/v1/tarjetas?size=20");
+  private static final List<String> POOLS = List.of(System.getProperty("carga.pools", "10,50").split(","));
+  private static final List<String> MODOS = List.of(System.getProperty("carga.modos", "plataforma,virtual").split(","));
+
+  private CargaHttp() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    System.out.printf("Clientes: %d, duración: %s, ruta: %s%n", CLIENTES, DURACION, RUTA);
+    System.out.printf("%-10s %6s %12s %8s %10s %9s %9s %9s%n",
+        "modo", "pool", "peticiones", "errores", "pet/s", "p50 ms", "p99 ms", "max ms");
+    for (String modo : MODOS) {
+      for (String pool : POOLS) {
+        try (ConfigurableApplicationContext context = arrancar(modo.trim().equals("virtual"), pool.trim())) {
+          int puerto = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+          URI uri = URI.create("http://localhost:" + puerto + RUTA);
+          cargar(uri, CALENTAMIENTO);
+          imprimir(modo.trim(), pool.trim(), cargar(uri, DURACION));
+        }
+      }
+    }
+  }
+
+  private static ConfigurableApplicationContext arrancar(boolean virtual, String pool) {
+    return new SpringApplicationBuilder(TarjetasApplication.class)
+        .properties(
+            "server.port=0",
+            "spring.threads.virtual.enabled=" + virtual,
+            "spring.datasource.hikari.maximum-pool-size=" + pool,
+            "spring.jpa.show-sql=false",
+            "spring.h2.console.enabled=false",
+            "logging.level.root=WARN",
+            "logging.level.es.carlosgs.tarjetas=WARN",
+            "logging.level.org.hibernate.orm.jdbc.bind=OFF")
+        .run();
+  }
+
+  // Latencias en nanosegundos de las peticiones correctas de todos los clientes, número de errores
+  // y tiempo real desde la salida hasta que termina el último cliente (incluye las respuestas que acaban tarde)
+  private record Resultado(long[] latencias, long errores, long nanos) {
+  }
+
+  // Cada cliente es un hilo virtual que repite la petición en cuanto recibe la respuesta
+  private static Resultado cargar(URI uri, Duration duracion) throws Exception {
+    HttpClient http = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+    HttpRequest peticion = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+    CountDownLatch salida = new CountDownLatch(1);
+    List<Future<long[]>> clientes = new ArrayList<>(CLIENTES);
+    long[] errores = new long[CLIENTES];
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      long fin = System.nanoTime() + duracion.toNanos();
+      for (int i = 0; i < CLIENTES; i++) {
+        int cliente = i;
+        clientes.add(executor.submit(() -> {
+          salida.await();
+          long[] latencias = new long[1024];
+          int n = 0;
+          while (System.nanoTime() < fin) {
+            long inicio = System.nanoTime();
+            try {
+              HttpResponse<Void> respuesta = http.send(peticion, HttpResponse.BodyHandlers.discarding());
+              if (respuesta.statusCode() != 200) {
+                errores[cliente]++;
+                continue;
+              }
+            } catch (Exception e) {
+              errores[cliente]++;
+              continue;
+            }
+            if (n == latencias.length) {
+              latencias = Arrays.copyOf(latencias, n * 2);
+            }
+            latencias[n++] = System.nanoTime() - inicio;
+          }
+          return Arrays.copyOf(latencias, n);
+        }));
+      }
+      long comienzo = System.nanoTime();
+      salida.countDown();
+      List<long[]> todas = new ArrayList<>(CLIENTES);
+      for (Future<long[]> resultado : clientes) {
+        todas.add(resultado.get());
+      }
+      long nanos = System.nanoTime() - comienzo;
+      long[] latencias = todas.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+      return new Resultado(latencias, Arrays.stream(errores).sum(), nanos);
+    } finally {
+      http.close();
+    }
+  }
+
+  private static void imprimir(String modo, String pool, Resultado resultado) {
+    long[] latencias = resultado.latencias();
+    double segundos = resultado.nanos() / 1e9;
+    System.out.printf("%-10s %6s %12d %8d %10.0f %9.1f %9.1f %9.1f%n", modo, pool, latencias.length, resultado.errores(),
+        latencias.length / segundos, percentil(latencias, 50), percentil(latencias, 99),
+        latencias.length == 0 ? 0.0 : latencias[latencias.length - 1] / 1e6);
+  }
+
+  // Percentil por el método del rango más cercano, en milisegundos
+  private static double percentil(long[] ordenadas, double percentil) {
+    if (ordenadas.length == 0) {
+      return 0.0;
+    }
+    int indice = (int) Math.ceil(percentil / 100.0 * ordenadas.length) - 1;
+    return ordenadas[Math.max(indice, 0)] / 1e6;
+  }
+}
@@ -0,0 +1,28 @@
+package es.carlosgs.tarjetas.benchmarks;
+
+import es.carlosgs.tarjetas.TarjetasApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Arranca la aplicación sin servidor web y sin trazas para medir los servicios contra la H2 en memoria
+ */
+final class BenchmarkContext {
+
+  private BenchmarkContext() {
+  }
+
+  static ConfigurableApplicationContext start(String... properties) {
+    return new SpringApplicationBuilder(TarjetasApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.jpa.show-sql=false",
+            "spring.h2.console.enabled=false",
+            "logging.level.root=WARN",
+            "logging.level.es.carlosgs.tarjetas=WARN",
+            "logging.level.org.hibernate.orm.jdbc.bind=OFF")
+        .properties(properties)
+        .run();
+  }
+}
@@ -0,0 +1,58 @@
+package es.carlosgs.tarjetas.benchmarks;
+
+import es.carlosgs.tarjetas.tarjetas.validators.CreditCardNumber;
+import es.carlosgs.tarjetas.tarjetas.validators.CreditCardNumberValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación del número de tarjeta con cada uno de los formatos admitidos y con uno no válido
+ * Compara la versión anterior con expresiones regulares (regex) con la que recorre los caracteres (isValid, isValidLuhn)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditCardNumberValidatorBenchmark {
+  @Param({"4539578763621486", "4539 5787 6362 1486", "4539-5787-6362-1486", "4539-5787-6362-14x6"})
+  private String numero;
+
+  private final CreditCardNumberValidator validator = new CreditCardNumberValidator();
+  private final CreditCardNumberValidator validatorLuhn = new CreditCardNumberValidator();
+
+  // Campos anotados para obtener las anotaciones con las que se inicializan los validadores
+  @CreditCardNumber
+  private String sinLuhn;
+  @CreditCardNumber(luhn = true)
+  private String conLuhn;
+
+  @Setup(Level.Trial)
+  public void setUp() throws NoSuchFieldException {
+    validator.initialize(anotacion("sinLuhn"));
+    validatorLuhn.initialize(anotacion("conLuhn"));
+  }
+
+  private static CreditCardNumber anotacion(String campo) throws NoSuchFieldException {
+    Field field = CreditCardNumberValidatorBenchmark.class.getDeclaredField(campo);
+    return field.getAnnotation(CreditCardNumber.class);
+  }
+
+  @Benchmark
+  public boolean regex() {
+    return RegexCreditCardNumberValidator.isValid(numero);
+  }
+
+  @Benchmark
+  public boolean isValid() {
+    return validator.isValid(numero, null);
+  }
+
+  @Benchmark
+  public boolean isValidLuhn() {
+    return validatorLuhn.isValid(numero, null);
+  }
+}
@@ -0,0 +1,21 @@
+package es.carlosgs.tarjetas.benchmarks;
+
+/**
+ * Versión anterior de CreditCardNumberValidator, con String.matches, para comparar con la actual
+ */
+final class RegexCreditCardNumberValidator {
+
+  private RegexCreditCardNumberValidator() {
+  }
+
+  static boolean isValid(String creditCardField) {
+    if (creditCardField == null) {
+      return true;
+    }
+    boolean valid16Digits = creditCardField.matches("[0-9]+")
+        && creditCardField.length() == 16;
+    boolean valid16WithSpaces = creditCardField.matches("([0-9]{4} ){3}[0-9]{4}");
+    boolean valid16WithDashes = creditCardField.matches("([0-9]{4}-){3}[0-9]{4}");
+    return valid16Digits || valid16WithSpaces || valid16WithDashes;
+  }
+}
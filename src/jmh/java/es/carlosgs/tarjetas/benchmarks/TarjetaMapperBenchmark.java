@@ -0,0 +1,64 @@
+package es.carlosgs.tarjetas.benchmarks;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import es.carlosgs.tarjetas.tarjetas.mappers.TarjetaMapper;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.models.Titular;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Mapeo de tarjetas a DTO de respuesta, una a una y en listas del tamaño de una página
+ * Con -prof gc se ven además los bytes reservados por operación
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TarjetaMapperBenchmark {
+  @Param({"20", "100"})
+  private int tamanoLista;
+
+  private final TarjetaMapper tarjetaMapper = new TarjetaMapper(new NumerosTarjeta("secreto-de-benchmark"));
+  private Tarjeta tarjeta;
+  private List<Tarjeta> tarjetas;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Titular titular = Titular.builder().id(1L).nombre("Carlos").nombreNormalizado("carlos").build();
+    tarjetas = LongStream.rangeClosed(1, tamanoLista)
+        .mapToObj(id -> Tarjeta.builder()
+            .id(id)
+            .numero("1111-2222-3333-4444")
+            .cvc("123")
+            .fechaCaducidad(LocalDate.of(2030, 12, 31))
+            .titular(titular)
+            .saldo(Dinero.of("100.0"))
+            .createdAt(LocalDateTime.now())
+            .updatedAt(LocalDateTime.now())
+            .uuid(UUID.randomUUID())
+            .build())
+        .toList();
+    tarjeta = tarjetas.getFirst();
+  }
+
+  @Benchmark
+  public TarjetaResponseDto toTarjetaResponseDto() {
+    return tarjetaMapper.toTarjetaResponseDto(tarjeta);
+  }
+
+  @Benchmark
+  public List<TarjetaResponseDto> toResponseDtoList() {
+    return tarjetaMapper.toResponseDtoList(tarjetas);
+  }
+}
@@ -0,0 +1,67 @@
+package es.carlosgs.tarjetas.benchmarks;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaBulkResponseDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasImportService;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Rendimiento de inserción de tarjetas: una a una por el servicio y en lote por la importación masiva
+ * Se compara ejecutándolo antes y después de cambiar la generación de ids (IDENTITY frente a secuencia)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TarjetasInsertBenchmark {
+  private static final int BULK_SIZE = 1000;
+
+  private ConfigurableApplicationContext context;
+  private TarjetasService tarjetasService;
+  private TarjetasImportService tarjetasImportService;
+  private TarjetaCreateDto tarjeta;
+  private List<TarjetaCreateDto> lote;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start();
+    tarjetasService = context.getBean(TarjetasService.class);
+    tarjetasImportService = context.getBean(TarjetasImportService.class);
+    tarjeta = TarjetaCreateDto.builder()
+        .numero("1111-2222-3333-4444")
+        .cvc("123")
+        .fechaCaducidad(LocalDate.of(2030, 12, 31))
+        .titular("Carlos")
+        .saldo(Dinero.of("100.0"))
+        .build();
+    lote = IntStream.range(0, BULK_SIZE).mapToObj(i -> tarjeta).toList();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public TarjetaResponseDto saveSingle() {
+    return tarjetasService.save(tarjeta);
+  }
+
+  // Se cuenta cada tarjeta como una operación para comparar con saveSingle
+  @Benchmark
+  @OperationsPerInvocation(BULK_SIZE)
+  public TarjetaBulkResponseDto saveBulk() {
+    return tarjetasImportService.saveAll(lote.iterator());
+  }
+}
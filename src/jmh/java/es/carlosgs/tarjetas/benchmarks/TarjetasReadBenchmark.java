@@ -0,0 +1,115 @@
+package es.carlosgs.tarjetas.benchmarks;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaPageResponseDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.repositories.SaldoTitular;
+import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasRepository;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasCache;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasImportService;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasService;
+import es.carlosgs.tarjetas.titulares.dto.TitularRequestDto;
+import es.carlosgs.tarjetas.titulares.services.TitularesService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Lecturas de tarjetas por el servicio contra la H2 en memoria con un volumen de datos realista
+ * Se cargan volumen tarjetas repartidas entre TITULARES titulares antes de medir
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TarjetasReadBenchmark {
+  private static final int TITULARES = 200;
+
+  @Param({"10000", "100000"})
+  private int volumen;
+
+  private ConfigurableApplicationContext context;
+  private TarjetasService tarjetasService;
+  private TarjetasRepository tarjetasRepository;
+  private Cache tarjetasCache;
+  private long primerId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start();
+    tarjetasService = context.getBean(TarjetasService.class);
+    tarjetasRepository = context.getBean(TarjetasRepository.class);
+    tarjetasCache = context.getBean(CacheManager.class).getCache(TarjetasCache.TARJETAS);
+    TitularesService titularesService = context.getBean(TitularesService.class);
+    IntStream.range(0, TITULARES).forEach(i -> titularesService.save(TitularRequestDto.builder()
+        .nombre(nombre(i))
+        .isDeleted(false)
+        .build()));
+    context.getBean(TarjetasImportService.class).saveAll(IntStream.range(0, volumen)
+        .mapToObj(i -> TarjetaCreateDto.builder()
+            .numero(String.format("4539-%04d-%04d-%04d", i % 10000, i / 10000, i % 7919))
+            .cvc(String.format("%03d", i % 1000))
+            .fechaCaducidad(LocalDate.now().plusMonths(1 + i % 60))
+            .titular(nombre(i % TITULARES))
+            .saldo(Dinero.ofCentimos(i % 500000))
+            .build())
+        .iterator());
+    primerId = tarjetasService.findAll(null, null, null, 1).getContent().getFirst().getId();
+  }
+
+  private static String nombre(int i) {
+    return String.format("Titular %04d", i);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  private long idAleatorio() {
+    return primerId + ThreadLocalRandom.current().nextLong(volumen);
+  }
+
+  // Primera página, sin filtros
+  @Benchmark
+  public TarjetaPageResponseDto findAllPrimeraPagina() {
+    return tarjetasService.findAll(null, null, null, 20);
+  }
+
+  // Filtro por subcadena del titular, resuelto con el índice de trigramas
+  @Benchmark
+  public TarjetaPageResponseDto findAllPorTitular() {
+    return tarjetasService.findAll(null, "lar 01", null, 20);
+  }
+
+  // Con la caché ya caliente para las claves leídas
+  @Benchmark
+  public TarjetaResponseDto findById() {
+    return tarjetasService.findById(idAleatorio());
+  }
+
+  // Fallo de caché: se invalida la clave antes de leerla, así siempre se consulta la base de datos
+  @Benchmark
+  public TarjetaResponseDto findByIdSinCache() {
+    long id = idAleatorio();
+    tarjetasCache.evict(id);
+    return tarjetasService.findById(id);
+  }
+
+  // Primera página del saldo total por titular, agregado en la base de datos
+  // Directamente del repositorio, sin la caché de estadísticas
+  @Benchmark
+  public List<SaldoTitular> sumSaldoByTitularIdGreaterThanGroupByTitular() {
+    return tarjetasRepository.sumSaldoByTitularIdGreaterThanGroupByTitular(0L, 20);
+  }
+}
@@ -0,0 +1,75 @@
+package es.carlosgs.tarjetas.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Gestor de cachés con Caffeine
+ * Todas las cachés tienen tamaño máximo (con expulsión W-TinyLFU), caducidad y estadísticas,
+ * que Actuator publica como métricas cache.gets, cache.puts, cache.evictions...
+ * Los fallos de caché se cargan una sola vez por clave: Caffeine bloquea la clave mientras se calcula,
+ * así que N peticiones concurrentes de la misma clave hacen una sola consulta (Cache.get(key, loader) o sync = true)
+ * Las cachés con refreshAfterWrite se crean como LoadingCache con su CacheRefresher,
+ * para recargar en segundo plano las claves que se siguen usando antes de que caduquen
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(CacheSpecsProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CacheSpecsProperties cacheSpecsProperties,
+                                     ObjectProvider<CacheRefresher> cacheRefreshers) {
+        Map<String, CacheRefresher> refreshers = cacheRefreshers.orderedStream()
+                .collect(Collectors.toMap(CacheRefresher::cacheName, Function.identity()));
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Las cachés que se creen sin especificación propia también quedan acotadas
+        cacheManager.setCacheSpecification(cacheSpecsProperties.getDefaultSpec());
+        // No guardamos nulos, un fallo se vuelve a buscar
+        cacheManager.setAllowNullValues(false);
+        cacheSpecsProperties.getSpecs().forEach((name, spec) -> {
+            log.info("Configurando caché {} con {}", name, spec);
+            cacheManager.registerCustomCache(name, buildCache(name, spec, refreshers.get(name)));
+        });
+        return cacheManager;
+    }
+
+    private Cache<Object, Object> buildCache(String name, String spec, CacheRefresher refresher) {
+        CaffeineSpec caffeineSpec = CaffeineSpec.parse(spec);
+        if (!spec.contains("refreshAfterWrite")) {
+            return Caffeine.from(caffeineSpec).build();
+        }
+        if (refresher == null) {
+            throw new IllegalStateException("La caché " + name + " tiene refreshAfterWrite pero no tiene CacheRefresher");
+        }
+        // Spring lee las LoadingCache con get(key), que carga la clave si falta: load devuelve null para que
+        // una lectura sin loader (TarjetasCache.getIfPresent, @Cacheable) siga siendo un fallo y no una consulta.
+        // Solo reload llama al CacheRefresher, con las claves que ya están en caché.
+        // Si la entrada se modifica o invalida mientras se recarga, Caffeine descarta el valor recargado
+        CacheLoader<Object, Object> loader = new CacheLoader<>() {
+            @Override
+            public Object load(Object key) {
+                return null;
+            }
+
+            @Override
+            public Object reload(Object key, Object oldValue) {
+                return refresher.reload(key);
+            }
+        };
+        return Caffeine.from(caffeineSpec).build(loader);
+    }
+}
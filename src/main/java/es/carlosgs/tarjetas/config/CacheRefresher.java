@@ -0,0 +1,14 @@
+package es.carlosgs.tarjetas.config;
+
+/**
+ * Recarga de las entradas de una caché para el refresco anticipado (refreshAfterWrite)
+ * Si la especificación de la caché tiene refreshAfterWrite, las entradas que se siguen leyendo
+ * se recargan en segundo plano antes de caducar, sin que ninguna petición espere a la base de datos
+ */
+public interface CacheRefresher {
+    // Nombre de la caché que recarga
+    String cacheName();
+
+    // Valor actual de la clave, o null si ya no existe (la entrada se elimina de la caché)
+    Object reload(Object key);
+}
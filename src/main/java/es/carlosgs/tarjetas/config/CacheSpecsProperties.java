@@ -0,0 +1,20 @@
+package es.carlosgs.tarjetas.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración de las cachés en application.properties
+ * Cada valor es una especificación de Caffeine, por ejemplo maximumSize=1000,expireAfterWrite=10m,recordStats
+ */
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class CacheSpecsProperties {
+    // Para las cachés que no tienen una especificación propia
+    private String defaultSpec = "maximumSize=1000,expireAfterWrite=10m,recordStats";
+    // Especificación por nombre de caché
+    private Map<String, String> specs = new HashMap<>();
+}
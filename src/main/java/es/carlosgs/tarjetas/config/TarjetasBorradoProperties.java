@@ -0,0 +1,22 @@
+package es.carlosgs.tarjetas.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuración del borrado de tarjetas en application.properties
+ * Con borrado lógico, borrar una tarjeta solo la marca (is_deleted) y una tarea en segundo plano
+ * elimina físicamente las marcadas hace más de purga-retencion, en lotes de purga-lote filas
+ */
+@Data
+@ConfigurationProperties(prefix = "tarjetas.borrado")
+public class TarjetasBorradoProperties {
+    // true: se marca como borrada; false: se borra la fila
+    private boolean logico = true;
+    // Tiempo que se conserva una tarjeta marcada antes de purgarla
+    private Duration purgaRetencion = Duration.ofDays(7);
+    // Filas que se borran en cada sentencia (y transacción) de la purga
+    private int purgaLote = 500;
+}
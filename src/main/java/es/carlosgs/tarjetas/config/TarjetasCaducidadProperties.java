@@ -0,0 +1,23 @@
+package es.carlosgs.tarjetas.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Period;
+
+/**
+ * Configuración del aviso de tarjetas próximas a caducar en application.properties
+ * Una tarea en segundo plano recorre las tarjetas que caducan desde hoy hasta dentro de ventana,
+ * en lotes de lote tarjetas con una pausa entre ellos, y publica cada lote como TarjetasPorCaducarEvent
+ */
+@Data
+@ConfigurationProperties(prefix = "tarjetas.caducidad")
+public class TarjetasCaducidadProperties {
+    // Se avisa de las tarjetas que caducan desde hoy hasta dentro de este tiempo
+    private Period ventana = Period.ofDays(30);
+    // Tarjetas que se leen en cada consulta y se publican en cada evento
+    private int lote = 200;
+    // Espera entre lotes: la tarea solo ocupa una conexión mientras dura cada consulta
+    private Duration pausa = Duration.ofMillis(100);
+}
@@ -0,0 +1,17 @@
+package es.carlosgs.tarjetas.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración de la huella de los números de tarjeta en application.properties
+ * La huella es un HMAC-SHA256 con este secreto: sin él no se puede recalcular a partir de un número,
+ * así que la columna huella no sirve para comprobar números por fuerza bruta
+ * Si cambia, hay que recalcular la huella de todas las tarjetas guardadas (ver NumerosTarjeta)
+ */
+@Data
+@ConfigurationProperties(prefix = "tarjetas.huella")
+public class TarjetasHuellaProperties {
+    // Clave del HMAC, en producción desde la variable de entorno TARJETAS_HUELLA_SECRETO
+    private String secreto;
+}
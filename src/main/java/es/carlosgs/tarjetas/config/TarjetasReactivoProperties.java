@@ -0,0 +1,20 @@
+package es.carlosgs.tarjetas.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuración de la conexión R2DBC de las lecturas reactivas de tarjetas en application.properties
+ * Apunta a la misma base de datos que el DataSource JDBC, con su propio pool de conexiones
+ * No se usa spring.r2dbc.*: su autoconfiguración crearía un ConnectionFactory y Spring Boot dejaría de crear el DataSource
+ */
+@Data
+@ConfigurationProperties(prefix = "tarjetas.reactivo")
+public class TarjetasReactivoProperties {
+    // URL R2DBC de la base de datos, por ejemplo r2dbc:h2:mem:///tarjetasapirest
+    private String url;
+    private String username;
+    private String password = "";
+    // Conexiones del pool reactivo, aparte de las del pool JDBC
+    private int maxSize = 10;
+}
@@ -0,0 +1,54 @@
+package es.carlosgs.tarjetas.paginacion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Utilidades de las páginas por clave (keyset) de tarjetas y titulares
+ * El cursor es opaco para el cliente: el último id devuelto codificado en Base64 URL-safe
+ * Los errores se construyen con la excepción de cada módulo (TarjetaBadRequestException, TitularBadRequestException),
+ * así cada API sigue respondiendo 400 con su propio tipo de error
+ */
+public final class PaginasPorClave {
+    // Tamaño de página por defecto y máximo que se permite pedir
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String PREFIJO = "id:";
+
+    private PaginasPorClave() {
+    }
+
+    // Tamaño pedido acotado al máximo, el de por defecto si no se pide ninguno
+    public static int pageSize(Integer size, Function<String, ? extends RuntimeException> badRequest) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw badRequest.apply("El tamaño de página debe ser mayor que 0");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    public static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIJO + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Último id devuelto en la página anterior, 0 si es la primera (sin cursor)
+    public static long decodeCursor(String cursor, Function<String, ? extends RuntimeException> badRequest) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIJO)) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return Long.parseLong(decoded.substring(PREFIJO.length()));
+        } catch (IllegalArgumentException e) {
+            throw badRequest.apply("El cursor " + cursor + " no es válido");
+        }
+    }
+}
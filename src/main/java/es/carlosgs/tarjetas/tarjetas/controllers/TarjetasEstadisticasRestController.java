@@ -0,0 +1,95 @@
+package es.carlosgs.tarjetas.tarjetas.controllers;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasCaducidadMesDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasResumenDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasTramoSaldoDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TitularSaldoDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TitularSaldoPageResponseDto;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadRequestException;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasEstadisticasService;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador de estadísticas de las tarjetas
+ * Se calculan en la base de datos y se sirven desde una caché de caducidad corta
+ */
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("api/${api.version}/tarjetas/estadisticas")
+public class TarjetasEstadisticasRestController {
+  private final TarjetasEstadisticasService estadisticasService;
+
+  /**
+   * Obtiene los totales de todas las tarjetas
+   *
+   * @return Número de tarjetas y titulares, saldo total, mínimo y máximo y tarjetas que caducan este mes
+   */
+  @GetMapping()
+  public ResponseEntity<TarjetasResumenDto> getResumen() {
+    log.info("Buscando resumen de tarjetas");
+    return ResponseEntity.ok(estadisticasService.getResumen());
+  }
+
+  /**
+   * Obtiene el saldo total y el número de tarjetas de cada titular, paginado por clave (keyset)
+   *
+   * @param cursor Token de continuación devuelto en la página anterior, vacío para la primera
+   * @param size   Tamaño de página, limitado a un máximo
+   * @return Página de saldos por titular, ordenada por id del titular, con el cursor de la siguiente
+   * @throws TarjetaBadRequestException si el cursor o el tamaño no son correctos (400)
+   */
+  @GetMapping("/titulares")
+  public ResponseEntity<TitularSaldoPageResponseDto> getSaldosPorTitular(@RequestParam(required = false) String cursor,
+                                                                         @RequestParam(required = false) Integer size) {
+    log.info("Buscando saldos por titular cursor={}, size={}", cursor, size);
+    return ResponseEntity.ok(estadisticasService.getSaldosPorTitular(cursor, size));
+  }
+
+  /**
+   * Obtiene el saldo total y el número de tarjetas de un titular
+   *
+   * @param titularId id del titular
+   * @return Saldo total del titular
+   * @throws TitularNotFoundException si no existe el titular (404)
+   */
+  @GetMapping("/titulares/{titularId}")
+  public ResponseEntity<TitularSaldoDto> getSaldoByTitularId(@PathVariable Long titularId) {
+    log.info("Buscando saldo del titular id={}", titularId);
+    return ResponseEntity.ok(estadisticasService.getSaldoByTitularId(titularId));
+  }
+
+  /**
+   * Obtiene las tarjetas que caducan en cada mes, desde el actual
+   *
+   * @param meses número de meses, 1 (solo el actual) por defecto
+   * @return Tarjetas y saldo por mes, solo los meses con alguna tarjeta
+   * @throws TarjetaBadRequestException si el número de meses no es correcto (400)
+   */
+  @GetMapping("/caducidades")
+  public ResponseEntity<List<TarjetasCaducidadMesDto>> getCaducidades(@RequestParam(defaultValue = "1") int meses) {
+    log.info("Buscando caducidades de los próximos meses={}", meses);
+    return ResponseEntity.ok(estadisticasService.getCaducidades(meses));
+  }
+
+  /**
+   * Obtiene la distribución de los saldos por tramos
+   *
+   * @return Tarjetas y saldo total de cada tramo, solo los tramos con alguna tarjeta
+   */
+  @GetMapping("/saldos")
+  public ResponseEntity<List<TarjetasTramoSaldoDto>> getTramosSaldo() {
+    log.info("Buscando distribución de saldos");
+    return ResponseEntity.ok(estadisticasService.getTramosSaldo());
+  }
+}
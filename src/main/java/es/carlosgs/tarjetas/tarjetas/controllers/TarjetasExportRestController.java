@@ -0,0 +1,49 @@
+package es.carlosgs.tarjetas.tarjetas.controllers;
+
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadRequestException;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Controlador de exportación de tarjetas
+ * La respuesta se escribe en streaming mientras se lee la base de datos,
+ * sin construir la lista completa de tarjetas en memoria
+ */
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("api/${api.version}/tarjetas/export")
+public class TarjetasExportRestController {
+  private final TarjetasExportService tarjetasExportService;
+
+  /**
+   * Exporta todas las tarjetas
+   *
+   * @param format formato de salida: ndjson (por defecto) o csv
+   * @return tarjetas en streaming, una por línea
+   * @throws TarjetaBadRequestException si el formato no es correcto (400)
+   */
+  @GetMapping()
+  public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+    log.info("Exportando tarjetas en formato={}", format);
+    return switch (format.toLowerCase()) {
+      case "ndjson" -> ResponseEntity.ok()
+          .contentType(MediaType.APPLICATION_NDJSON)
+          .body(tarjetasExportService::exportNdjson);
+      case "csv" -> ResponseEntity.ok()
+          .contentType(new MediaType("text", "csv"))
+          .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tarjetas.csv\"")
+          .body(tarjetasExportService::exportCsv);
+      default -> throw new TarjetaBadRequestException("El formato " + format + " no es válido");
+    };
+  }
+}
@@ -0,0 +1,81 @@
+package es.carlosgs.tarjetas.tarjetas.controllers;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadUuidException;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaNotFoundException;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasReactiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controlador de lecturas reactivas de tarjetas
+ * Devuelve Flux y Mono: el hilo de la petición se libera mientras se espera a la base de datos
+ * y los listados se escriben en NDJSON pidiendo a la consulta la siguiente tarjeta solo cuando se ha enviado la anterior,
+ * así un cliente lento no acumula tarjetas en la memoria del servidor
+ */
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("api/${api.version}/reactive/tarjetas")
+public class TarjetasReactiveRestController {
+  private final TarjetasReactiveService tarjetasReactiveService;
+
+  /**
+   * Obtiene todas las tarjetas en streaming, una por línea
+   *
+   * @param numero  Número de la tarjeta
+   * @param titular Titular de la tarjeta
+   * @return tarjetas en orden de id
+   */
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<TarjetaResponseDto> getAll(@RequestParam(required = false) String numero,
+                                         @RequestParam(required = false) String titular) {
+    log.info("Buscando tarjetas en streaming por numero={}, titular={}", numero, titular);
+    return tarjetasReactiveService.findAll(numero, titular);
+  }
+
+  /**
+   * Obtiene una tarjeta por su id
+   *
+   * @param id de la tarjeta
+   * @return TarjetaResponseDto si existe, con su versión en la cabecera ETag
+   * @throws TarjetaNotFoundException si no existe la tarjeta (404)
+   */
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<TarjetaResponseDto>> getById(@PathVariable Long id) {
+    log.info("Buscando tarjeta por id={}", id);
+    return tarjetasReactiveService.findById(id).map(this::withETag);
+  }
+
+  /**
+   * Obtiene una tarjeta por su uuid
+   *
+   * @param uuid de la tarjeta
+   * @return TarjetaResponseDto si existe, con su versión en la cabecera ETag
+   * @throws TarjetaBadUuidException si el uuid no es correcto (400)
+   * @throws TarjetaNotFoundException si no existe la tarjeta (404)
+   */
+  @GetMapping("/uuid/{uuid}")
+  public Mono<ResponseEntity<TarjetaResponseDto>> getByUuid(@PathVariable String uuid) {
+    log.info("Buscando tarjeta por uuid={}", uuid);
+    return tarjetasReactiveService.findByUuid(uuid).map(this::withETag);
+  }
+
+  // El ETag es la versión de la tarjeta, como en TarjetasRestController
+  private ResponseEntity<TarjetaResponseDto> withETag(TarjetaResponseDto tarjeta) {
+    var response = ResponseEntity.ok();
+    if (tarjeta.getVersion() != null) {
+      response.eTag("\"" + tarjeta.getVersion() + "\"");
+    }
+    return response.body(tarjeta);
+  }
+}
@@ -1,15 +1,35 @@
 package es.carlosgs.tarjetas.tarjetas.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaBulkResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaLoteItemDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaMovimientoDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaPageResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaUpdateDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TitularSaldoDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TitularSaldoPageResponseDto;
 import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadRequestException;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadUuidException;
 import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaNotFoundException;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaPreconditionFailedException;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaPreconditionRequiredException;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaSaldoInsuficienteException;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasEstadisticasService;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasImportService;
 import es.carlosgs.tarjetas.tarjetas.services.TarjetasService;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -17,9 +37,17 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * Controlador de productos del tipo RestController
@@ -38,32 +66,98 @@ import java.util.Map;
 public class TarjetasRestController {
   // Servicio de tarjetas
   private final TarjetasService tarjetasService;
+  // Servicio de importación masiva
+  private final TarjetasImportService tarjetasImportService;
+  // Saldos por titular de /saldos, los mismos que /estadisticas/titulares
+  private final TarjetasEstadisticasService estadisticasService;
+  // Para leer el cuerpo de la importación masiva como JSON o NDJSON
+  private final ObjectMapper objectMapper;
+
+  // Cabeceras para pedir una respuesta sin cuerpo al actualizar
+  private static final String PREFER = "Prefer";
+  private static final String PREFERENCE_APPLIED = "Preference-Applied";
+  private static final String RETURN_MINIMAL = "return=minimal";
 
   /**
-   * Obtiene todas las tarjetas
+   * Obtiene las tarjetas paginadas por clave (keyset)
    *
    * @param numero    Número de la tarjeta
    * @param titular   Titular de la tarjeta
-   * @return Lista de tarjetas
+   * @param cursor    Token de continuación devuelto en la página anterior, vacío para la primera
+   * @param size      Tamaño de página, limitado a un máximo
+   * @return Página de tarjetas con el cursor de la siguiente
+   * @throws TarjetaBadRequestException si el cursor o el tamaño no son correctos (400)
    */
   @GetMapping()
-  public ResponseEntity<List<TarjetaResponseDto>> getAll(@RequestParam(required = false) String numero,
-                                                      @RequestParam(required = false) String titular) {
-    log.info("Buscando tarjetas por numero={}, titular={}", numero, titular);
-    return ResponseEntity.ok(tarjetasService.findAll(numero, titular));
+  public ResponseEntity<TarjetaPageResponseDto> getAll(@RequestParam(required = false) String numero,
+                                                       @RequestParam(required = false) String titular,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size) {
+    log.info("Buscando tarjetas por numero={}, titular={}, cursor={}, size={}", numero, titular, cursor, size);
+    return ResponseEntity.ok(tarjetasService.findAll(numero, titular, cursor, size));
+  }
+
+  /**
+   * Obtiene el saldo total y el número de tarjetas de cada titular, paginado por clave (keyset)
+   * Ruta anterior a /estadisticas/titulares, se mantiene por compatibilidad y usa su misma caché
+   *
+   * @param cursor Token de continuación devuelto en la página anterior, vacío para la primera
+   * @param size   Tamaño de página, limitado a un máximo
+   * @return Página de saldos por titular, ordenada por id del titular, con el cursor de la siguiente
+   * @throws TarjetaBadRequestException si el cursor o el tamaño no son correctos (400)
+   */
+  @GetMapping("/saldos")
+  public ResponseEntity<TitularSaldoPageResponseDto> getSaldos(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size) {
+    log.info("Buscando saldos por titular cursor={}, size={}", cursor, size);
+    return ResponseEntity.ok(estadisticasService.getSaldosPorTitular(cursor, size));
+  }
+
+  /**
+   * Obtiene el saldo total y el número de tarjetas de un titular
+   * Ruta anterior a /estadisticas/titulares/{titularId}, se mantiene por compatibilidad
+   *
+   * @param titularId id del titular
+   * @return Saldo total del titular
+   * @throws TitularNotFoundException si no existe el titular (404)
+   */
+  @GetMapping("/saldos/{titularId}")
+  public ResponseEntity<TitularSaldoDto> getSaldo(@PathVariable Long titularId) {
+    log.info("Buscando saldo del titular id={}", titularId);
+    return ResponseEntity.ok(estadisticasService.getSaldoByTitularId(titularId));
   }
 
   /**
    * Obtiene una tarjeta por su id
    *
    * @param id de la tarjeta, se pasa como parámetro de la URL /{id}
-   * @return TarjetaResponseDto si existe
+   * @return TarjetaResponseDto si existe, con su versión en la cabecera ETag
    * @throws TarjetaNotFoundException si no existe la tarjeta (404)
    */
   @GetMapping("/{id}")
   public ResponseEntity<TarjetaResponseDto> getById(@PathVariable Long id) {
     log.info("Buscando tarjeta por id={}", id);
-    return ResponseEntity.ok(tarjetasService.findById(id));
+    return withETag(tarjetasService.findById(id));
+  }
+
+  /**
+   * Obtiene varias tarjetas en una sola petición, por id o por uuid
+   * Las que están en caché no se consultan y el resto se lee en una única consulta
+   *
+   * @param ids   ids de las tarjetas separados por comas, ?ids=1,2,3
+   * @param uuids uuids de las tarjetas separados por comas, en lugar de ids
+   * @return Una entrada por clave en el orden pedido, con encontrada a false si la tarjeta no existe
+   * @throws TarjetaBadRequestException si no se indican ids o uuids, se indican ambos o son más de 100 (400)
+   * @throws TarjetaBadUuidException si algún uuid no es correcto (400)
+   */
+  @GetMapping("/bulk")
+  public ResponseEntity<List<TarjetaLoteItemDto>> getBulk(@RequestParam(required = false) List<Long> ids,
+                                                          @RequestParam(required = false) List<String> uuids) {
+    log.info("Buscando tarjetas por ids={}, uuids={}", ids, uuids);
+    if ((ids == null) == (uuids == null)) {
+      throw new TarjetaBadRequestException("Hay que indicar ids o uuids");
+    }
+    return ResponseEntity.ok(ids != null ? tarjetasService.findAllByIds(ids) : tarjetasService.findAllByUuids(uuids));
   }
 
   /**
@@ -80,20 +174,98 @@ public class TarjetasRestController {
     return ResponseEntity.status(HttpStatus.CREATED).body(saved);
   }
 
+  /**
+   * Importa muchas tarjetas en una sola petición
+   * El cuerpo puede ser un array JSON o NDJSON (una tarjeta por línea) y se lee según llega
+   * Las filas que no se pueden leer, no son válidas o no se pueden guardar se informan con su posición
+   * sin abortar el resto; en un array JSON mal formado se guardan las filas anteriores al error
+   *
+   * @param contentType application/json o application/x-ndjson
+   * @param body        tarjetas a crear
+   * @return Resumen con las tarjetas insertadas y los errores de cada fila
+   * @throws TarjetaBadRequestException si el cuerpo no se puede empezar a leer (400)
+   */
+  @PostMapping(value = "/bulk",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<TarjetaBulkResponseDto> createBulk(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                           InputStream body) {
+    log.info("Importando tarjetas en {}", contentType);
+    ObjectReader reader = objectMapper.readerFor(TarjetaCreateDto.class);
+    if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+      return ResponseEntity.ok(tarjetasImportService.saveAll(new LineasNdjson(body, reader)));
+    }
+    try (MappingIterator<TarjetaCreateDto> tarjetas = reader.readValues(body)) {
+      return ResponseEntity.ok(tarjetasImportService.saveAll(tarjetas));
+    } catch (IOException | RuntimeJsonMappingException e) {
+      throw new TarjetaBadRequestException("El cuerpo de la importación no es válido: " + e.getMessage());
+    }
+  }
+
+  // Tarjetas de un cuerpo NDJSON, una por línea no vacía
+  // Cada línea se convierte por separado: una línea mal formada solo es un error de esa fila
+  // (RuntimeJsonMappingException, ver TarjetasImportService) y se sigue con la siguiente
+  private static final class LineasNdjson implements Iterator<TarjetaCreateDto> {
+    private final BufferedReader lineas;
+    private final ObjectReader reader;
+    private String siguiente;
+
+    private LineasNdjson(InputStream body, ObjectReader reader) {
+      this.lineas = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (siguiente == null) {
+          String linea = lineas.readLine();
+          if (linea == null) {
+            return false;
+          }
+          if (!linea.isBlank()) {
+            siguiente = linea;
+          }
+        }
+        return true;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public TarjetaCreateDto next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      String linea = siguiente;
+      siguiente = null;
+      try {
+        return reader.readValue(linea);
+      } catch (JsonProcessingException e) {
+        throw new RuntimeJsonMappingException(e.getOriginalMessage());
+      }
+    }
+  }
 
   /**
    * Actualiza una tarjeta
    *
    * @param id      de la tarjeta a actualizar
    * @param tarjetaUpdateDto con los datos a actualizar
+   * @param prefer  return=minimal para no devolver la tarjeta (204)
+   * @param ifMatch ETag de la versión que se quiere actualizar, obligatorio
    * @return TarjetaResponseDto actualizada
    * @throws TarjetaNotFoundException si no existe la tarjeta (404)
+   * @throws TarjetaPreconditionFailedException si la tarjeta ya no está en esa versión (412)
+   * @throws TarjetaPreconditionRequiredException si no se envía If-Match (428)
    * @throws TarjetaBadRequestException si la tarjeta no es correcta (400)
    */
   @PutMapping("/{id}")
-  public ResponseEntity<TarjetaResponseDto> update(@PathVariable Long id, @Valid @RequestBody TarjetaUpdateDto tarjetaUpdateDto) {
+  public ResponseEntity<TarjetaResponseDto> update(@PathVariable Long id, @Valid @RequestBody TarjetaUpdateDto tarjetaUpdateDto,
+                                                   @RequestHeader(value = PREFER, required = false) String prefer,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
     log.info("Actualizando tarjeta id={} con tarjeta={}", id, tarjetaUpdateDto);
-    return ResponseEntity.ok(tarjetasService.update(id, tarjetaUpdateDto));
+    return actualizar(id, tarjetaUpdateDto, prefer, ifMatch);
   }
 
   /**
@@ -101,14 +273,87 @@ public class TarjetasRestController {
    *
    * @param id      de la tarjeta a actualizar
    * @param tarjetaUpdateDto con los datos a actualizar
+   * @param prefer  return=minimal para no devolver la tarjeta (204)
+   * @param ifMatch ETag de la versión que se quiere actualizar, obligatorio
    * @return Tarjeta actualizada
    * @throws TarjetaNotFoundException si no existe la tarjeta (404)
+   * @throws TarjetaPreconditionFailedException si la tarjeta ya no está en esa versión (412)
+   * @throws TarjetaPreconditionRequiredException si no se envía If-Match (428)
    * @throws TarjetaBadRequestException si la tarjeta no es correcta (400)
    */
   @PatchMapping("/{id}")
-  public ResponseEntity<TarjetaResponseDto> updatePartial(@PathVariable Long id, @Valid @RequestBody TarjetaUpdateDto tarjetaUpdateDto) {
+  public ResponseEntity<TarjetaResponseDto> updatePartial(@PathVariable Long id, @Valid @RequestBody TarjetaUpdateDto tarjetaUpdateDto,
+                                                          @RequestHeader(value = PREFER, required = false) String prefer,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
     log.info("Actualizando parcialmente tarjeta con id={} con tarjeta={}",id, tarjetaUpdateDto);
-    return ResponseEntity.ok(tarjetasService.update(id, tarjetaUpdateDto));
+    return actualizar(id, tarjetaUpdateDto, prefer, ifMatch);
+  }
+
+  // Con Prefer: return=minimal (RFC 7240) no se lee la tarjeta actualizada y se responde 204 sin cuerpo
+  // Solo se actualiza si la tarjeta sigue en la versión del ETag de If-Match
+  private ResponseEntity<TarjetaResponseDto> actualizar(Long id, TarjetaUpdateDto tarjetaUpdateDto, String prefer,
+                                                        String ifMatch) {
+    long version = parseIfMatch(id, ifMatch);
+    if (prefer != null && prefer.contains(RETURN_MINIMAL)) {
+      tarjetasService.updateById(id, tarjetaUpdateDto, version);
+      return ResponseEntity.noContent().header(PREFERENCE_APPLIED, RETURN_MINIMAL).build();
+    }
+    return withETag(tarjetasService.update(id, tarjetaUpdateDto, version));
+  }
+
+  /**
+   * Abona un importe en el saldo de una tarjeta
+   *
+   * @param id de la tarjeta
+   * @param movimiento con el importe a sumar
+   * @return Tarjeta con el saldo actualizado
+   * @throws TarjetaNotFoundException si no existe la tarjeta (404)
+   */
+  @PostMapping("/{id}/abono")
+  public ResponseEntity<TarjetaResponseDto> abonar(@PathVariable Long id, @Valid @RequestBody TarjetaMovimientoDto movimiento) {
+    log.info("Abonando en tarjeta id={} importe={}", id, movimiento.getImporte());
+    return withETag(tarjetasService.abonar(id, movimiento.getImporte()));
+  }
+
+  /**
+   * Carga un importe en el saldo de una tarjeta
+   *
+   * @param id de la tarjeta
+   * @param movimiento con el importe a restar
+   * @return Tarjeta con el saldo actualizado
+   * @throws TarjetaNotFoundException si no existe la tarjeta (404)
+   * @throws TarjetaSaldoInsuficienteException si el saldo es menor que el importe (409)
+   */
+  @PostMapping("/{id}/cargo")
+  public ResponseEntity<TarjetaResponseDto> cargar(@PathVariable Long id, @Valid @RequestBody TarjetaMovimientoDto movimiento) {
+    log.info("Cargando en tarjeta id={} importe={}", id, movimiento.getImporte());
+    return withETag(tarjetasService.cargar(id, movimiento.getImporte()));
+  }
+
+  // El ETag es la versión de la tarjeta
+  private ResponseEntity<TarjetaResponseDto> withETag(TarjetaResponseDto tarjeta) {
+    var response = ResponseEntity.ok();
+    if (tarjeta.getVersion() != null) {
+      response.eTag("\"" + tarjeta.getVersion() + "\"");
+    }
+    return response.body(tarjeta);
+  }
+
+  // If-Match: "3" (o W/"3") es la versión 3
+  // Es obligatoria: sin cabecera o con * un PUT con el saldo completo pisaría una escritura concurrente
+  private long parseIfMatch(Long id, String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      throw new TarjetaPreconditionRequiredException(id);
+    }
+    String etag = ifMatch.trim();
+    if (etag.startsWith("W/")) {
+      etag = etag.substring(2);
+    }
+    try {
+      return Long.parseLong(etag.replace("\"", ""));
+    } catch (NumberFormatException e) {
+      throw new TarjetaBadRequestException("La cabecera If-Match " + ifMatch + " no es válida");
+    }
   }
 
   /**
@@ -0,0 +1,21 @@
+package es.carlosgs.tarjetas.tarjetas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Fila de una importación masiva que no se ha podido insertar
+ * indice es la posición de la tarjeta en la petición (empezando en 0)
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TarjetaBulkErrorDto {
+  private int indice;
+  private Map<String, String> errores;
+}
@@ -0,0 +1,21 @@
+package es.carlosgs.tarjetas.tarjetas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva de tarjetas
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TarjetaBulkResponseDto {
+  private int total;
+  private int insertadas;
+  private List<TarjetaBulkErrorDto> errores;
+}
@@ -1,5 +1,6 @@
 package es.carlosgs.tarjetas.tarjetas.dto;
 
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
 import es.carlosgs.tarjetas.tarjetas.validators.CreditCardNumber;
 import es.carlosgs.tarjetas.titulares.models.Titular;
 import jakarta.validation.constraints.Future;
@@ -23,5 +24,5 @@ public class TarjetaCreateDto {
   private final LocalDate fechaCaducidad;
   @NotBlank(message = "El titular no puede estar vacío")
   private final String titular;
-  private final Double saldo;
+  private final Dinero saldo;
 }
@@ -0,0 +1,20 @@
+package es.carlosgs.tarjetas.tarjetas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una de las claves pedidas en una lectura de varias tarjetas
+ * clave es el id o uuid tal cual se pidió; si no existe, encontrada es false y tarjeta es null
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TarjetaLoteItemDto {
+  private String clave;
+  private boolean encontrada;
+  private TarjetaResponseDto tarjeta;
+}
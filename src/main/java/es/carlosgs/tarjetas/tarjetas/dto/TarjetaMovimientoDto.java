@@ -0,0 +1,29 @@
+package es.carlosgs.tarjetas.tarjetas.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Importe de un abono o un cargo en el saldo de una tarjeta
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TarjetaMovimientoDto {
+  @NotNull(message = "El importe no puede estar vacío")
+  private Dinero importe;
+
+  // @Positive no admite Dinero, se valida aquí
+  @JsonIgnore
+  @AssertTrue(message = "El importe debe ser mayor que 0")
+  public boolean isImportePositivo() {
+    return importe == null || importe.esPositivo();
+  }
+}
@@ -1,5 +1,7 @@
 package es.carlosgs.tarjetas.tarjetas.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
 import es.carlosgs.tarjetas.titulares.models.Titular;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -21,9 +23,12 @@ public class TarjetaResponseDto {
   private String cvc;
   private LocalDate fechaCaducidad;
   private String titular;
-  private Double saldo;
+  private Dinero saldo;
 
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
   private UUID uuid;
+  // Versión para el bloqueo optimista, se envía en la cabecera ETag y no en el cuerpo
+  @JsonIgnore
+  private Long version;
 }
@@ -1,5 +1,6 @@
 package es.carlosgs.tarjetas.tarjetas.dto;
 
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
 import es.carlosgs.tarjetas.tarjetas.validators.CreditCardNumber;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.Pattern;
@@ -19,5 +20,5 @@ public class TarjetaUpdateDto {
   private final LocalDate fechaCaducidad;
   // Una vez creada la tarjeta, no se puede cambiar el titular
   //private final String titular;
-  private final Double saldo;
+  private final Dinero saldo;
 }
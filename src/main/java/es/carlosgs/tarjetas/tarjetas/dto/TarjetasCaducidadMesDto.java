@@ -0,0 +1,21 @@
+package es.carlosgs.tarjetas.tarjetas.dto;
+
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Número de tarjetas activas que caducan en un mes y su saldo total
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TarjetasCaducidadMesDto {
+  private int anio;
+  private int mes;
+  private long tarjetas;
+  private Dinero saldoTotal;
+}
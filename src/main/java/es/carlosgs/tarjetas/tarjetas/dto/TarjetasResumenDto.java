@@ -0,0 +1,24 @@
+package es.carlosgs.tarjetas.tarjetas.dto;
+
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totales de todas las tarjetas activas, calculados en la base de datos
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TarjetasResumenDto {
+  private long tarjetas;
+  private long titulares;
+  private Dinero saldoTotal;
+  private Dinero saldoMinimo;
+  private Dinero saldoMaximo;
+  // Tarjetas que caducan en el mes actual
+  private long caducanEsteMes;
+}
@@ -0,0 +1,22 @@
+package es.carlosgs.tarjetas.tarjetas.dto;
+
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tarjetas activas con el saldo en el tramo [desde, hasta) y su saldo total
+ * desde es null en el tramo de saldos negativos y hasta es null en el último tramo
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TarjetasTramoSaldoDto {
+  private Dinero desde;
+  private Dinero hasta;
+  private long tarjetas;
+  private Dinero saldoTotal;
+}
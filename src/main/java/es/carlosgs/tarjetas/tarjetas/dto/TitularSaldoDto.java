@@ -0,0 +1,21 @@
+package es.carlosgs.tarjetas.tarjetas.dto;
+
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Saldo total y número de tarjetas activas de un titular, calculados en la base de datos
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TitularSaldoDto {
+  private Long titularId;
+  private String titular;
+  private long tarjetas;
+  private Dinero saldoTotal;
+}
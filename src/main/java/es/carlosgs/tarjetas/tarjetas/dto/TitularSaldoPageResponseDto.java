@@ -0,0 +1,23 @@
+package es.carlosgs.tarjetas.tarjetas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de saldos por titular obtenida por clave (keyset) sobre el id del titular
+ * nextCursor es un token opaco que se envía en la siguiente petición para continuar,
+ * si es null no hay más páginas
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TitularSaldoPageResponseDto {
+  private List<TitularSaldoDto> content;
+  private int size;
+  private String nextCursor;
+}
@@ -0,0 +1,13 @@
+package es.carlosgs.tarjetas.tarjetas.events;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Lote de tarjetas que caducan entre desde y hasta, ordenadas por fecha de caducidad
+ * Lo publica TarjetasCaducidadJob, una vez por lote
+ */
+public record TarjetasPorCaducarEvent(List<TarjetaResponseDto> tarjetas, LocalDate desde, LocalDate hasta) {
+}
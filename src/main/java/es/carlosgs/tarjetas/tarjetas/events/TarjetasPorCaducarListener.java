@@ -0,0 +1,22 @@
+package es.carlosgs.tarjetas.tarjetas.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recibe los lotes de tarjetas próximas a caducar
+ * Se ejecuta en el mismo hilo que la tarea, así el siguiente lote no se lee hasta procesar este
+ * Por ahora solo los registra, aquí se enviarían los avisos a los titulares
+ */
+@Slf4j
+@Component
+public class TarjetasPorCaducarListener {
+
+  @EventListener
+  public void onTarjetasPorCaducar(TarjetasPorCaducarEvent event) {
+    log.info("{} tarjetas caducan entre {} y {}", event.tarjetas().size(), event.desde(), event.hasta());
+    event.tarjetas().forEach(tarjeta -> log.debug("La tarjeta {} de {} caduca el {}",
+        tarjeta.getId(), tarjeta.getTitular(), tarjeta.getFechaCaducidad()));
+  }
+}
@@ -0,0 +1,44 @@
+package es.carlosgs.tarjetas.tarjetas.events;
+
+import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasRepository;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasCache;
+import es.carlosgs.tarjetas.titulares.events.TitularRenombradoEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Invalida en la caché de tarjetas las tarjetas de un titular renombrado: su TarjetaResponseDto lleva el nombre
+ * Después del commit, para que una lectura concurrente no vuelva a cachear la tarjeta con el nombre anterior,
+ * y recorriendo los ids de sus tarjetas por clave, en lotes, sin cargar las tarjetas
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class TitularRenombradoListener {
+  // Ids de tarjetas que se leen en cada consulta
+  static final int LOTE = 500;
+
+  private final TarjetasRepository tarjetasRepository;
+  private final TarjetasCache tarjetasCache;
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onTitularRenombrado(TitularRenombradoEvent event) {
+    log.info("Invalidando las tarjetas del titular {} renombrado de {} a {}",
+        event.titularId(), event.nombreAnterior(), event.nombre());
+    long lastId = 0L;
+    List<Long> ids;
+    do {
+      ids = tarjetasRepository.findIdsByTitularIdAndIdGreaterThan(event.titularId(), lastId, Limit.of(LOTE));
+      ids.forEach(tarjetasCache::evict);
+      if (!ids.isEmpty()) {
+        lastId = ids.getLast();
+      }
+    } while (ids.size() == LOTE);
+  }
+}
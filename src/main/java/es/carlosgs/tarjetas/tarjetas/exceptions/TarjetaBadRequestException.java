@@ -1,5 +1,13 @@
 package es.carlosgs.tarjetas.tarjetas.exceptions;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción de petición incorrecta
+ * Status 400
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
 public class TarjetaBadRequestException extends TarjetaException {
   public TarjetaBadRequestException(String message) {
     super(message);
@@ -0,0 +1,15 @@
+package es.carlosgs.tarjetas.tarjetas.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción de versión distinta a la esperada (If-Match): otro cliente ha modificado la tarjeta
+ * Status 412
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class TarjetaPreconditionFailedException extends TarjetaException {
+  public TarjetaPreconditionFailedException(Long id, Long version) {
+    super("La tarjeta con id " + id + " ya no está en la versión " + version);
+  }
+}
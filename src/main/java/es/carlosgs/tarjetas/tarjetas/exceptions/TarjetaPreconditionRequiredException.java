@@ -0,0 +1,15 @@
+package es.carlosgs.tarjetas.tarjetas.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción de actualización sin la versión de la tarjeta (If-Match): podría pisar la escritura de otro cliente
+ * Status 428
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_REQUIRED)
+public class TarjetaPreconditionRequiredException extends TarjetaException {
+  public TarjetaPreconditionRequiredException(Long id) {
+    super("Para actualizar la tarjeta con id " + id + " hay que enviar su ETag en la cabecera If-Match");
+  }
+}
@@ -0,0 +1,15 @@
+package es.carlosgs.tarjetas.tarjetas.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción de saldo insuficiente para un cargo
+ * Status 409
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class TarjetaSaldoInsuficienteException extends TarjetaException {
+  public TarjetaSaldoInsuficienteException(Long id) {
+    super("La tarjeta con id " + id + " no tiene saldo suficiente");
+  }
+}
@@ -3,20 +3,29 @@ package es.carlosgs.tarjetas.tarjetas.mappers;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaUpdateDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TitularSaldoDto;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
 import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
+import es.carlosgs.tarjetas.tarjetas.repositories.SaldoTitular;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
 import es.carlosgs.tarjetas.titulares.models.Titular;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+@RequiredArgsConstructor
 @Component
 public class TarjetaMapper {
+  private final NumerosTarjeta numerosTarjeta;
+
   public Tarjeta toTarjeta(TarjetaCreateDto tarjetaCreateDto, Titular titular) {
     return Tarjeta.builder()
         .id(null)
         .numero(tarjetaCreateDto.getNumero())
+        .huella(numerosTarjeta.huella(tarjetaCreateDto.getNumero()))
         .cvc(tarjetaCreateDto.getCvc())
         .fechaCaducidad(tarjetaCreateDto.getFechaCaducidad())
         .titular(titular)
@@ -31,6 +40,7 @@ public class TarjetaMapper {
     return Tarjeta.builder()
         .id(tarjeta.getId())
         .numero(tarjetaUpdateDto.getNumero() != null ? tarjetaUpdateDto.getNumero() : tarjeta.getNumero())
+        .huella(tarjetaUpdateDto.getNumero() != null ? numerosTarjeta.huella(tarjetaUpdateDto.getNumero()) : tarjeta.getHuella())
         .cvc(tarjetaUpdateDto.getCvc() != null ? tarjetaUpdateDto.getCvc() : tarjeta.getCvc())
         .fechaCaducidad(tarjetaUpdateDto.getFechaCaducidad() != null ? tarjetaUpdateDto.getFechaCaducidad() : tarjeta.getFechaCaducidad())
         // Una vez creada la tarjeta, no se puede cambiar el titular
@@ -39,6 +49,7 @@ public class TarjetaMapper {
         .createdAt(tarjeta.getCreatedAt())
         .updatedAt(LocalDateTime.now())
         .uuid(tarjeta.getUuid())
+        .version(tarjeta.getVersion())
         .build();
   }
 
@@ -53,6 +64,17 @@ public class TarjetaMapper {
         .createdAt(tarjeta.getCreatedAt())
         .updatedAt(tarjeta.getUpdatedAt())
         .uuid(tarjeta.getUuid())
+        .version(tarjeta.getVersion())
+        .build();
+  }
+
+  // El total llega de la base de datos como DECIMAL
+  public TitularSaldoDto toTitularSaldoDto(SaldoTitular saldo) {
+    return TitularSaldoDto.builder()
+        .titularId(saldo.getTitularId())
+        .titular(saldo.getTitular())
+        .tarjetas(saldo.getTarjetas())
+        .saldoTotal(Dinero.of(saldo.getSaldoTotal()))
         .build();
   }
 
@@ -0,0 +1,51 @@
+package es.carlosgs.tarjetas.tarjetas.mappers;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasCaducidadMesDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasResumenDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasTramoSaldoDto;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.repositories.CaducidadesMes;
+import es.carlosgs.tarjetas.tarjetas.repositories.ResumenTarjetas;
+import es.carlosgs.tarjetas.tarjetas.repositories.TramoSaldo;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+// Las estadísticas llegan ya agregadas de la base de datos, los importes como DECIMAL
+// Los saldos por titular se mapean con TarjetaMapper, igual que en /tarjetas/saldos
+@Component
+public class TarjetasEstadisticasMapper {
+  public TarjetasResumenDto toTarjetasResumenDto(ResumenTarjetas resumen) {
+    return TarjetasResumenDto.builder()
+        .tarjetas(resumen.getTarjetas())
+        .titulares(resumen.getTitulares())
+        .saldoTotal(toDinero(resumen.getSaldoTotal()))
+        .saldoMinimo(toDinero(resumen.getSaldoMinimo()))
+        .saldoMaximo(toDinero(resumen.getSaldoMaximo()))
+        .caducanEsteMes(resumen.getCaducan())
+        .build();
+  }
+
+  public TarjetasCaducidadMesDto toTarjetasCaducidadMesDto(CaducidadesMes caducidades) {
+    return TarjetasCaducidadMesDto.builder()
+        .anio(caducidades.getAnio())
+        .mes(caducidades.getMes())
+        .tarjetas(caducidades.getTarjetas())
+        .saldoTotal(toDinero(caducidades.getSaldoTotal()))
+        .build();
+  }
+
+  public TarjetasTramoSaldoDto toTarjetasTramoSaldoDto(TramoSaldo tramo) {
+    return TarjetasTramoSaldoDto.builder()
+        // El tramo de saldos negativos no tiene límite inferior y el último no tiene límite superior
+        .desde(tramo.getDesde() != null ? toDinero(tramo.getDesde()) : null)
+        .hasta(tramo.getHasta() != null ? toDinero(tramo.getHasta()) : null)
+        .tarjetas(tramo.getTarjetas())
+        .saldoTotal(toDinero(tramo.getSaldoTotal()))
+        .build();
+  }
+
+  private Dinero toDinero(BigDecimal importe) {
+    return importe != null ? Dinero.of(importe) : Dinero.CERO;
+  }
+}
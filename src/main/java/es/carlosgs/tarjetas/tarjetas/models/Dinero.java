@@ -0,0 +1,59 @@
+package es.carlosgs.tarjetas.tarjetas.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Importe exacto en euros, guardado como un long de céntimos
+ * Las sumas y restas son aritmética entera, sin los errores de redondeo de Double ni el coste de BigDecimal
+ * En JSON y en la base de datos (DECIMAL(19,2), ver DineroConverter) es un número decimal con dos decimales
+ */
+public record Dinero(long centimos) implements Comparable<Dinero> {
+  public static final int DECIMALES = 2;
+  public static final Dinero CERO = new Dinero(0);
+
+  public static Dinero ofCentimos(long centimos) {
+    return new Dinero(centimos);
+  }
+
+  // Falla (ArithmeticException) si el importe tiene fracciones de céntimo o no cabe en un long
+  @JsonCreator
+  public static Dinero of(BigDecimal importe) {
+    Objects.requireNonNull(importe, "El importe no puede ser nulo");
+    return new Dinero(importe.movePointRight(DECIMALES).longValueExact());
+  }
+
+  public static Dinero of(String importe) {
+    return of(new BigDecimal(importe));
+  }
+
+  @JsonValue
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(centimos, DECIMALES);
+  }
+
+  public Dinero sumar(Dinero otro) {
+    return new Dinero(Math.addExact(centimos, otro.centimos));
+  }
+
+  public Dinero restar(Dinero otro) {
+    return new Dinero(Math.subtractExact(centimos, otro.centimos));
+  }
+
+  public boolean esPositivo() {
+    return centimos > 0;
+  }
+
+  @Override
+  public int compareTo(Dinero otro) {
+    return Long.compare(centimos, otro.centimos);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+}
@@ -0,0 +1,23 @@
+package es.carlosgs.tarjetas.tarjetas.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Guarda Dinero en una columna decimal exacta (DECIMAL(19,2)) en lugar de un float
+ * Se aplica a todos los atributos de tipo Dinero
+ */
+@Converter(autoApply = true)
+public class DineroConverter implements AttributeConverter<Dinero, BigDecimal> {
+  @Override
+  public BigDecimal convertToDatabaseColumn(Dinero dinero) {
+    return dinero == null ? null : dinero.toBigDecimal();
+  }
+
+  @Override
+  public Dinero convertToEntityAttribute(BigDecimal importe) {
+    return importe == null ? null : Dinero.of(importe);
+  }
+}
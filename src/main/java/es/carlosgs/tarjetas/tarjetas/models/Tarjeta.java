@@ -1,8 +1,10 @@
 package es.carlosgs.tarjetas.tarjetas.models;
 
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
 import es.carlosgs.tarjetas.titulares.models.Titular;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -15,19 +17,43 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor // JPA necesita un constructor vacío
 @Entity
-@Table(name = "TARJETAS")
+// Las tarjetas con borrado lógico no existen para ninguna lectura por JPA/JPQL, solo para las consultas nativas
+@SQLRestriction("is_deleted = false")
+@Table(name = "TARJETAS", indexes = {
+    // Búsqueda por número con una sola comparación indexada, sea cual sea el formato
+    @Index(name = "idx_tarjetas_huella", columnList = "huella"),
+    // Búsqueda por el número tal cual se guardó (findByNumero)
+    @Index(name = "idx_tarjetas_numero", columnList = "numero"),
+    // Tarjetas (activas) de un titular ordenadas por id: sirve para titular_id = ? AND is_deleted = ? ORDER BY id
+    // y, por su prefijo, para titular_id IN (...) con el recorrido por id de las páginas
+    // H2 no tiene índices parciales (WHERE is_deleted = false), por eso is_deleted va en la clave
+    @Index(name = "idx_tarjetas_titular_activas", columnList = "titular_id, is_deleted, id"),
+    // Tarjetas con borrado lógico en orden de id, para la purga por lotes (purgeDeletedBefore):
+    // recorre solo las borradas ya ordenadas y se detiene al completar el lote, sin ordenar después
+    @Index(name = "idx_tarjetas_borradas", columnList = "is_deleted, id"),
+    // Rangos de fecha de caducidad recorridos por clave (fechaCaducidad, id), ver TarjetasCaducidadJob
+    @Index(name = "idx_tarjetas_fecha_caducidad", columnList = "fecha_caducidad, id")
+})
 public class Tarjeta {
   @Id // Indicamos que es el ID de la tabla
-  @GeneratedValue(strategy = GenerationType.IDENTITY) // Indicamos que es autoincremental y por el script de datos
+  // Secuencia con reserva de bloques de ids (pooled-lo): no hay un viaje a la base de datos por inserción
+  // y Hibernate puede agrupar los INSERT en lotes JDBC
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tarjetas_seq")
+  @SequenceGenerator(name = "tarjetas_seq", sequenceName = "TARJETAS_SEQ", allocationSize = 50)
   private Long id;
+  // Tal y como llegó, para mostrarlo; las búsquedas usan la huella
   @Column(nullable = false, length = 19)
   private String numero;
+  // Huella HMAC-SHA256 con secreto del número canónico (solo dígitos), ver NumerosTarjeta
+  @Column(nullable = false, length = NumerosTarjeta.LONGITUD_HUELLA)
+  private String huella;
   @Column(nullable = false, length = 3)
   private String cvc;
   @Column(nullable = false)
   private LocalDate fechaCaducidad;
-  @Column(nullable = false)
-  private Double saldo;
+  // Importe exacto en una columna DECIMAL(19,2), ver Dinero y DineroConverter
+  @Column(nullable = false, precision = 19, scale = Dinero.DECIMALES)
+  private Dinero saldo;
   @Builder.Default
   @Column(updatable = false, nullable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
   private LocalDateTime createdAt = LocalDateTime.now();
@@ -38,12 +64,20 @@ public class Tarjeta {
   @Builder.Default
   private UUID uuid = UUID.randomUUID();
 
-  // nueva columna
-  @Column(columnDefinition = "boolean default false")
+  // Borrado lógico, ver TarjetasBorradoProperties
+  @Column(nullable = false, columnDefinition = "boolean default false")
   @Builder.Default
   private Boolean isDeleted = false;
 
-  @ManyToOne
+  // Bloqueo optimista: cada modificación incrementa la versión (también en los UPDATE del repositorio)
+  @Version
+  @Column(nullable = false)
+  private Long version;
+
+  // Perezoso: los listados usan proyecciones que ya traen el nombre del titular
+  // Fuera del toString: fuera de la sesión lanzaría LazyInitializationException y dentro haría otra consulta
+  @ToString.Exclude
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name="titular_id")
   private Titular titular;
 }
@@ -0,0 +1,11 @@
+package es.carlosgs.tarjetas.tarjetas.repositories;
+
+import java.math.BigDecimal;
+
+// Proyección de TarjetasRepository: tarjetas activas que caducan en un mes
+public interface CaducidadesMes {
+  Integer getAnio();
+  Integer getMes();
+  Long getTarjetas();
+  BigDecimal getSaldoTotal();
+}
@@ -0,0 +1,13 @@
+package es.carlosgs.tarjetas.tarjetas.repositories;
+
+import java.math.BigDecimal;
+
+// Proyección de TarjetasRepository: totales de todas las tarjetas activas y cuántas caducan en un periodo
+public interface ResumenTarjetas {
+  Long getTarjetas();
+  Long getTitulares();
+  BigDecimal getSaldoTotal();
+  BigDecimal getSaldoMinimo();
+  BigDecimal getSaldoMaximo();
+  Long getCaducan();
+}
@@ -0,0 +1,11 @@
+package es.carlosgs.tarjetas.tarjetas.repositories;
+
+import java.math.BigDecimal;
+
+// Proyección de TarjetasRepository: saldo total y número de tarjetas (activas) de un titular
+public interface SaldoTitular {
+  Long getTitularId();
+  String getTitular();
+  Long getTarjetas();
+  BigDecimal getSaldoTotal();
+}
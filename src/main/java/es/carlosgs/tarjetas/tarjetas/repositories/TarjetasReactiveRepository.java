@@ -0,0 +1,131 @@
+package es.carlosgs.tarjetas.tarjetas.repositories;
+
+import es.carlosgs.tarjetas.config.TarjetasReactivoProperties;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.titulares.repositories.TitularTrigramasRepository;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Lecturas de tarjetas sin bloquear hilos, con R2DBC sobre la misma base de datos que TarjetasRepository
+ * Las consultas son SQL nativo: hay que filtrar is_deleted a mano (la restricción de Tarjeta solo la aplica JPA)
+ * El pool de conexiones es de este repositorio y no un bean ConnectionFactory, ver TarjetasReactivoProperties
+ */
+@Repository
+public class TarjetasReactiveRepository implements DisposableBean {
+  // Las mismas columnas que SELECT_RESPONSE_DTO de TarjetasRepository
+  private static final String SELECT_RESPONSE = "SELECT t.id, t.numero, t.cvc, t.fecha_caducidad, tit.nombre, t.saldo, "
+      + "t.created_at, t.updated_at, t.uuid, t.version "
+      + "FROM TARJETAS t JOIN TITULARES tit ON tit.id = t.titular_id "
+      + "WHERE t.is_deleted = false ";
+
+  private final ConnectionPool pool;
+  private final DatabaseClient databaseClient;
+
+  public TarjetasReactiveRepository(TarjetasReactivoProperties properties) {
+    var options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate()
+        .option(ConnectionFactoryOptions.USER, properties.getUsername())
+        .option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+        .build();
+    this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+        .maxSize(properties.getMaxSize())
+        .build());
+    this.databaseClient = DatabaseClient.create(pool);
+  }
+
+  // Todas en orden de id; las filas se leen a medida que el suscriptor las pide
+  public Flux<TarjetaResponseDto> findAllResponses() {
+    return databaseClient.sql(SELECT_RESPONSE + "ORDER BY t.id")
+        .map(TarjetasReactiveRepository::toResponseDto)
+        .all();
+  }
+
+  // Por huella del número (índice idx_tarjetas_huella)
+  public Flux<TarjetaResponseDto> findAllResponsesByHuella(String huella) {
+    return databaseClient.sql(SELECT_RESPONSE + "AND t.huella = :huella ORDER BY t.id")
+        .bind("huella", huella)
+        .map(TarjetasReactiveRepository::toResponseDto)
+        .all();
+  }
+
+  // Por subcadena del nombre del titular, igual que TarjetasRepository.findResponsesByTitularTrigramasAndIdGreaterThan:
+  // los titulares candidatos salen del índice de trigramas en una subconsulta y se confirman contra el nombre normalizado
+  public Flux<TarjetaResponseDto> findAllResponsesByTitularTrigramas(Collection<String> trigramas,
+                                                                    String nombreNormalizado) {
+    return databaseClient.sql(SELECT_RESPONSE
+            + "AND t.titular_id IN (" + TitularTrigramasRepository.TITULAR_IDS_CON_TRIGRAMAS_SQL + ") "
+            + "AND tit.nombre_normalizado LIKE :nombre ORDER BY t.id")
+        .bind("trigramas", trigramas)
+        .bind("totalTrigramas", trigramas.size())
+        .bind("nombre", "%" + nombreNormalizado + "%")
+        .map(TarjetasReactiveRepository::toResponseDto)
+        .all();
+  }
+
+  // Búsquedas más cortas que un trigrama: sin índice que sirva, se compara el nombre normalizado en la unión
+  public Flux<TarjetaResponseDto> findAllResponsesByTitularContaining(String nombreNormalizado) {
+    return databaseClient.sql(SELECT_RESPONSE + "AND tit.nombre_normalizado LIKE :nombre ORDER BY t.id")
+        .bind("nombre", "%" + nombreNormalizado + "%")
+        .map(TarjetasReactiveRepository::toResponseDto)
+        .all();
+  }
+
+  // Por número y titular: la huella ya deja muy pocas filas, el nombre se comprueba sobre ellas sin trigramas
+  public Flux<TarjetaResponseDto> findAllResponsesByHuellaAndTitularContaining(String huella, String nombreNormalizado) {
+    return databaseClient.sql(SELECT_RESPONSE + "AND t.huella = :huella AND tit.nombre_normalizado LIKE :nombre "
+            + "ORDER BY t.id")
+        .bind("huella", huella)
+        .bind("nombre", "%" + nombreNormalizado + "%")
+        .map(TarjetasReactiveRepository::toResponseDto)
+        .all();
+  }
+
+  public Mono<TarjetaResponseDto> findResponseById(Long id) {
+    return databaseClient.sql(SELECT_RESPONSE + "AND t.id = :id")
+        .bind("id", id)
+        .map(TarjetasReactiveRepository::toResponseDto)
+        .one();
+  }
+
+  public Mono<TarjetaResponseDto> findResponseByUuid(UUID uuid) {
+    return databaseClient.sql(SELECT_RESPONSE + "AND t.uuid = :uuid")
+        .bind("uuid", uuid)
+        .map(TarjetasReactiveRepository::toResponseDto)
+        .one();
+  }
+
+  private static TarjetaResponseDto toResponseDto(Readable row) {
+    return TarjetaResponseDto.builder()
+        .id(row.get("id", Long.class))
+        .numero(row.get("numero", String.class))
+        .cvc(row.get("cvc", String.class))
+        .fechaCaducidad(row.get("fecha_caducidad", LocalDate.class))
+        .titular(row.get("nombre", String.class))
+        .saldo(Dinero.of(row.get("saldo", BigDecimal.class)))
+        .createdAt(row.get("created_at", LocalDateTime.class))
+        .updatedAt(row.get("updated_at", LocalDateTime.class))
+        .uuid(row.get("uuid", UUID.class))
+        .version(row.get("version", Long.class))
+        .build();
+  }
+
+  @Override
+  public void destroy() {
+    pool.dispose();
+  }
+}
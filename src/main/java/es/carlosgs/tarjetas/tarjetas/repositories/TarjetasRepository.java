@@ -1,22 +1,37 @@
 package es.carlosgs.tarjetas.tarjetas.repositories;
 
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
 import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
 import es.carlosgs.tarjetas.titulares.models.Titular;
+import es.carlosgs.tarjetas.titulares.repositories.TitularTrigramasRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TarjetasRepository extends JpaRepository<Tarjeta, Long> {
   // Otras consultas aparte de las básicas que proporciona la interfaz JpaRepository
 
-  // Por número
+  // Por número tal cual se guardó
   List<Tarjeta> findByNumero(String numero);
+  // Por huella del número, con cualquier formato (ver NumerosTarjeta)
+  List<Tarjeta> findByHuella(String huella);
   // Por número y que isDeleted sea false
   List<Tarjeta> findByNumeroAndIsDeletedFalse(String numero);
 
@@ -32,17 +47,191 @@ public interface TarjetasRepository extends JpaRepository<Tarjeta, Long> {
   List<Tarjeta> findByNumeroAndTitularContainsIgnoreCase(String numero, String titular);
   //List<Tarjeta> findByNumeroAndTitularContainsIgnoreCaseAndIsDeletedFalse(String numero, String titular);
 
+  // Proyección directa a TarjetaResponseDto uniendo con TITULARES en la misma consulta,
+  // así los listados se resuelven en una única sentencia sin cargar el titular de cada tarjeta por separado
+  String SELECT_RESPONSE_DTO = "SELECT new es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto("
+      + "t.id, t.numero, t.cvc, t.fechaCaducidad, tit.nombre, t.saldo, t.createdAt, t.updatedAt, t.uuid, t.version) "
+      + "FROM Tarjeta t JOIN t.titular tit ";
+
+  // Búsquedas por clave (keyset): ordenadas por id y a partir del último id devuelto,
+  // así cualquier página cuesta lo mismo que la primera porque se recorre el índice de la clave primaria
+  @Query(SELECT_RESPONSE_DTO + "WHERE t.id > :id ORDER BY t.id")
+  List<TarjetaResponseDto> findResponsesByIdGreaterThan(Long id, Limit limit);
+
+  // Por número: se compara la huella del número canónico, indexada
+  @Query(SELECT_RESPONSE_DTO + "WHERE t.huella = :huella AND t.id > :id ORDER BY t.id")
+  List<TarjetaResponseDto> findResponsesByHuellaAndIdGreaterThan(String huella, Long id, Limit limit);
+
+  // Por subcadena del nombre del titular en una sola consulta: los titulares candidatos salen del índice de trigramas
+  // en una subconsulta (nunca se cargan en memoria) y se confirman contra el nombre normalizado
+  // Se filtra por la clave ajena de TARJETAS (t.titular.id) para usar el índice idx_tarjetas_titular_activas
+  @Query(SELECT_RESPONSE_DTO + "WHERE t.titular.id IN (" + TitularTrigramasRepository.TITULAR_IDS_CON_TRIGRAMAS + ") "
+      + "AND tit.nombreNormalizado LIKE %:nombreNormalizado% AND t.id > :id ORDER BY t.id")
+  List<TarjetaResponseDto> findResponsesByTitularTrigramasAndIdGreaterThan(Collection<String> trigramas,
+                                                                           long totalTrigramas,
+                                                                           String nombreNormalizado,
+                                                                           Long id, Limit limit);
+
+  // Búsquedas más cortas que un trigrama: sin índice que sirva, se compara el nombre normalizado en la unión
+  @Query(SELECT_RESPONSE_DTO + "WHERE tit.nombreNormalizado LIKE %:nombreNormalizado% AND t.id > :id ORDER BY t.id")
+  List<TarjetaResponseDto> findResponsesByTitularNombreContainingAndIdGreaterThan(String nombreNormalizado,
+                                                                                  Long id, Limit limit);
+
+  // Tarjetas de un titular (/titulares/{id}/tarjetas), por el índice idx_tarjetas_titular_activas
+  @Query(SELECT_RESPONSE_DTO + "WHERE t.titular.id = :titularId AND t.id > :id ORDER BY t.id")
+  List<TarjetaResponseDto> findResponsesByTitularIdAndIdGreaterThan(Long titularId, Long id, Limit limit);
+
+  // Solo los ids de las tarjetas de un titular, por clave y con el mismo índice (TitularRenombradoListener)
+  @Query("SELECT t.id FROM Tarjeta t WHERE t.titular.id = :titularId AND t.id > :id ORDER BY t.id")
+  List<Long> findIdsByTitularIdAndIdGreaterThan(Long titularId, Long id, Limit limit);
+
+  // Por número y titular: la huella ya deja muy pocas filas, el nombre se comprueba sobre ellas sin trigramas
+  @Query(SELECT_RESPONSE_DTO + "WHERE t.huella = :huella AND tit.nombreNormalizado LIKE %:nombreNormalizado% "
+      + "AND t.id > :id ORDER BY t.id")
+  List<TarjetaResponseDto> findResponsesByHuellaAndTitularNombreContainingAndIdGreaterThan(
+      String huella, String nombreNormalizado, Long id, Limit limit);
+
+  // Tarjetas que caducan entre fecha y hasta, por clave (fechaCaducidad, id) a partir de la última devuelta
+  // Las dos cotas de fecha hacen que sea un recorrido por rango del índice idx_tarjetas_fecha_caducidad
+  // Para empezar: fecha la primera de la ventana e id 0
+  @Query(SELECT_RESPONSE_DTO + "WHERE t.fechaCaducidad BETWEEN :fecha AND :hasta "
+      + "AND (t.fechaCaducidad > :fecha OR t.id > :id) ORDER BY t.fechaCaducidad, t.id")
+  List<TarjetaResponseDto> findResponsesByFechaCaducidadBetweenAfter(LocalDate fecha, LocalDate hasta, Long id,
+                                                                     Limit limit);
+
+  // Por id y por UUID directamente como DTO
+  @Query(SELECT_RESPONSE_DTO + "WHERE t.id = :id")
+  Optional<TarjetaResponseDto> findResponseById(Long id);
+
+  @Query(SELECT_RESPONSE_DTO + "WHERE t.uuid = :uuid")
+  Optional<TarjetaResponseDto> findResponseByUuid(UUID uuid);
+
+  // Varias tarjetas en una sola consulta, en cualquier orden (lecturas por lotes, ver TarjetasService.findAllByIds)
+  @Query(SELECT_RESPONSE_DTO + "WHERE t.id IN :ids")
+  List<TarjetaResponseDto> findResponsesByIdIn(Collection<Long> ids);
+
+  @Query(SELECT_RESPONSE_DTO + "WHERE t.uuid IN :uuids")
+  List<TarjetaResponseDto> findResponsesByUuidIn(Collection<UUID> uuids);
+
+  // Solo el id, para el índice uuid -> id de la caché
+  @Query("SELECT t.id FROM Tarjeta t WHERE t.uuid = :uuid")
+  Optional<Long> findIdByUuid(UUID uuid);
+
+  // Cuando se necesita la entidad, se trae junto con su titular en la misma consulta
+  @Override
+  @EntityGraph(attributePaths = "titular")
+  Optional<Tarjeta> findById(Long id);
+
+  // Recorre todas las tarjetas con un cursor de base de datos en lugar de cargarlas en una lista
+  // El fetch size indica cuántas filas trae el driver en cada viaje y el titular se trae en la misma consulta
+  // Debe consumirse dentro de una transacción y cerrando el Stream
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("SELECT t FROM Tarjeta t JOIN FETCH t.titular ORDER BY t.id")
+  Stream<Tarjeta> streamAll();
+
   // Por UUID
   Optional<Tarjeta> findByUuid(UUID uuid);
   boolean existsByUuid(UUID uuid);
   void deleteByUuid(UUID uuid);
 
-  // Si está borrado
-  List<Tarjeta> findByIsDeleted(Boolean isDeleted);
-
-  // Actualizar la tarjeta con isDeleted a true
-  @Modifying // Para indicar que es una consulta de actualización
-  @Query("UPDATE Tarjeta t SET t.isDeleted = true WHERE t.id = :id")
+  // Actualizar la tarjeta con isDeleted a true (borrado lógico) en una sola sentencia
+  // Devuelve las filas afectadas: 0 si no existe o ya estaba borrada
+  @Modifying(clearAutomatically = true) // Para indicar que es una consulta de actualización
+  @Transactional
+  @Query("UPDATE Tarjeta t SET t.isDeleted = true, t.updatedAt = CURRENT_TIMESTAMP, t.version = t.version + 1 "
+      + "WHERE t.id = :id AND t.isDeleted = false")
   // Consulta de actualización
-  void updateIsDeletedToTrueById(Long id);
+  int updateIsDeletedToTrueById(Long id);
+
+  // Actualización en una sola sentencia, sin cargar antes la entidad: los campos nulos conservan su valor
+  // Con version solo actualiza si la tarjeta sigue en esa versión (bloqueo optimista), con null siempre
+  // Devuelve las filas actualizadas: 0 si no existe (o está borrada) o si ha cambiado de versión
+  // Nativa como addSaldoById: en COALESCE Hibernate no aplica el conversor de Dinero al parámetro,
+  // el saldo llega como DECIMAL (Dinero.toBigDecimal)
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query(value = "UPDATE TARJETAS SET numero = COALESCE(:numero, numero), huella = COALESCE(:huella, huella), "
+      + "cvc = COALESCE(:cvc, cvc), fecha_caducidad = COALESCE(:fechaCaducidad, fecha_caducidad), "
+      + "saldo = COALESCE(:saldo, saldo), updated_at = :updatedAt, version = version + 1 "
+      + "WHERE id = :id AND is_deleted = FALSE AND (:version IS NULL OR version = :version)", nativeQuery = true)
+  int updateById(Long id, String numero, String huella, String cvc, LocalDate fechaCaducidad, BigDecimal saldo,
+                 LocalDateTime updatedAt, Long version);
+
+  // Abono: suma el importe al saldo en la base de datos, sin leerlo antes, así no se pierde ninguno con concurrencia
+  // Nativas: JPQL no opera con el tipo Dinero, la suma se hace sobre la columna DECIMAL (importe con Dinero.toBigDecimal)
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query(value = "UPDATE TARJETAS SET saldo = saldo + :importe, updated_at = :updatedAt, version = version + 1 "
+      + "WHERE id = :id AND is_deleted = FALSE", nativeQuery = true)
+  int addSaldoById(Long id, BigDecimal importe, LocalDateTime updatedAt);
+
+  // Cargo: resta el importe solo si hay saldo suficiente, la condición y la resta son la misma sentencia
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query(value = "UPDATE TARJETAS SET saldo = saldo - :importe, updated_at = :updatedAt, version = version + 1 "
+      + "WHERE id = :id AND is_deleted = FALSE AND saldo >= :importe", nativeQuery = true)
+  int subtractSaldoById(Long id, BigDecimal importe, LocalDateTime updatedAt);
+
+  // Estadísticas (TarjetasEstadisticasService): todas se agregan en la base de datos con COUNT/SUM y GROUP BY,
+  // nativas para sumar sobre la columna DECIMAL del saldo y sin cargar ninguna tarjeta
+  // Los alias van entre comillas para que H2 respete las mayúsculas de las propiedades de la proyección
+
+  // Saldo total y número de tarjetas (activas) de cada titular, los titulares sin tarjetas salen con 0
+  String SELECT_SALDOS_TITULARES = "SELECT tit.id AS \"titularId\", tit.nombre AS \"titular\", "
+      + "COUNT(t.id) AS \"tarjetas\", COALESCE(SUM(t.saldo), 0) AS \"saldoTotal\" FROM TITULARES tit "
+      + "LEFT JOIN TARJETAS t ON t.titular_id = tit.id AND t.is_deleted = FALSE ";
+
+  // Por clave: los titulares siguientes al último id devuelto, como mucho limite
+  @Query(value = SELECT_SALDOS_TITULARES + "WHERE tit.id > :titularId GROUP BY tit.id, tit.nombre ORDER BY tit.id "
+      + "FETCH FIRST :limite ROWS ONLY", nativeQuery = true)
+  List<SaldoTitular> sumSaldoByTitularIdGreaterThanGroupByTitular(Long titularId, int limite);
+
+  @Query(value = SELECT_SALDOS_TITULARES + "WHERE tit.id = :titularId GROUP BY tit.id, tit.nombre",
+      nativeQuery = true)
+  Optional<SaldoTitular> sumSaldoByTitularId(Long titularId);
+
+  // Totales de todas las tarjetas activas, y cuántas caducan entre desde y hasta
+  @Query(value = "SELECT COUNT(*) AS \"tarjetas\", COUNT(DISTINCT titular_id) AS \"titulares\", "
+      + "COALESCE(SUM(saldo), 0) AS \"saldoTotal\", COALESCE(MIN(saldo), 0) AS \"saldoMinimo\", "
+      + "COALESCE(MAX(saldo), 0) AS \"saldoMaximo\", "
+      + "COALESCE(SUM(CASE WHEN fecha_caducidad BETWEEN :desde AND :hasta THEN 1 ELSE 0 END), 0) AS \"caducan\" "
+      + "FROM TARJETAS WHERE is_deleted = FALSE", nativeQuery = true)
+  ResumenTarjetas summarize(LocalDate desde, LocalDate hasta);
+
+  // Tarjetas activas que caducan cada mes entre desde y hasta
+  @Query(value = "SELECT EXTRACT(YEAR FROM fecha_caducidad) AS \"anio\", EXTRACT(MONTH FROM fecha_caducidad) AS \"mes\", "
+      + "COUNT(*) AS \"tarjetas\", SUM(saldo) AS \"saldoTotal\" FROM TARJETAS "
+      + "WHERE is_deleted = FALSE AND fecha_caducidad BETWEEN :desde AND :hasta "
+      + "GROUP BY EXTRACT(YEAR FROM fecha_caducidad), EXTRACT(MONTH FROM fecha_caducidad) ORDER BY 1, 2",
+      nativeQuery = true)
+  List<CaducidadesMes> countByFechaCaducidadBetweenGroupByMes(LocalDate desde, LocalDate hasta);
+
+  // Distribución de los saldos en tramos de orden de magnitud: [0, 10), [10, 100) ... [10000, sin límite)
+  // Los saldos negativos van en su propio tramo, sin límite inferior (desde null) y hasta 0
+  @Query(value = "SELECT d.desde AS \"desde\", d.hasta AS \"hasta\", COUNT(*) AS \"tarjetas\", "
+      + "SUM(d.saldo) AS \"saldoTotal\" FROM (SELECT saldo, "
+      + "CASE WHEN saldo < 0 THEN NULL WHEN saldo < 10 THEN 0 WHEN saldo < 100 THEN 10 WHEN saldo < 1000 THEN 100 "
+      + "WHEN saldo < 10000 THEN 1000 ELSE 10000 END AS desde, "
+      + "CASE WHEN saldo < 0 THEN 0 WHEN saldo < 10 THEN 10 WHEN saldo < 100 THEN 100 WHEN saldo < 1000 THEN 1000 "
+      + "WHEN saldo < 10000 THEN 10000 END AS hasta "
+      + "FROM TARJETAS WHERE is_deleted = FALSE) d GROUP BY d.desde, d.hasta ORDER BY d.desde NULLS FIRST",
+      nativeQuery = true)
+  List<TramoSaldo> countGroupBySaldoTramo();
+
+  // Borrado físico en una sola sentencia, devuelve las filas borradas
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("DELETE FROM Tarjeta t WHERE t.id = :id")
+  int deleteByIdReturningCount(Long id);
+
+  // Purga un lote de tarjetas con borrado lógico anterior a la fecha límite (nativa para ver las borradas)
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM TARJETAS WHERE id IN (SELECT id FROM TARJETAS "
+      + "WHERE is_deleted = TRUE AND updated_at < :limite ORDER BY id FETCH FIRST :lote ROWS ONLY)",
+      nativeQuery = true)
+  int purgeDeletedBefore(LocalDateTime limite, int lote);
 }
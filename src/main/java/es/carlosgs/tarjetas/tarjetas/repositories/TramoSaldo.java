@@ -0,0 +1,11 @@
+package es.carlosgs.tarjetas.tarjetas.repositories;
+
+import java.math.BigDecimal;
+
+// Proyección de TarjetasRepository: tarjetas cuyo saldo está en el tramo [desde, hasta), null sin límite
+public interface TramoSaldo {
+  BigDecimal getDesde();
+  BigDecimal getHasta();
+  Long getTarjetas();
+  BigDecimal getSaldoTotal();
+}
@@ -0,0 +1,71 @@
+package es.carlosgs.tarjetas.tarjetas.search;
+
+import es.carlosgs.tarjetas.config.TarjetasHuellaProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Utilidades para buscar tarjetas por número
+ * El número se guarda tal y como llega (16 dígitos, o en grupos con espacios o guiones) porque es el que se muestra
+ * y el que compara findByNumero; todas las búsquedas por número, en cambio, reducen el número a su forma canónica
+ * (solo los dígitos) y comparan su huella, que está indexada en la columna huella
+ * La huella es un HMAC-SHA256 con un secreto de la configuración (tarjetas.huella.secreto):
+ * un SHA-256 sin clave de un número de 16 dígitos se invierte probando todos los números posibles
+ */
+@Component
+public class NumerosTarjeta {
+  // Longitud de la huella en hexadecimal
+  public static final int LONGITUD_HUELLA = 64;
+  private static final String ALGORITMO = "HmacSHA256";
+
+  private final SecretKeySpec clave;
+
+  @Autowired
+  public NumerosTarjeta(TarjetasHuellaProperties properties) {
+    this(properties.getSecreto());
+  }
+
+  public NumerosTarjeta(String secreto) {
+    if (secreto == null || secreto.isBlank()) {
+      throw new IllegalStateException("Falta el secreto de la huella de los números de tarjeta (tarjetas.huella.secreto)");
+    }
+    this.clave = new SecretKeySpec(secreto.getBytes(StandardCharsets.UTF_8), ALGORITMO);
+  }
+
+  // Solo los dígitos del número, sin separadores
+  public static String canonico(String numero) {
+    if (numero == null) {
+      return null;
+    }
+    StringBuilder digitos = new StringBuilder(numero.length());
+    for (int i = 0; i < numero.length(); i++) {
+      char c = numero.charAt(i);
+      if (c != ' ' && c != '-') {
+        digitos.append(c);
+      }
+    }
+    return digitos.toString();
+  }
+
+  // Huella HMAC-SHA256 en hexadecimal del número canónico, igual para cualquier formato del mismo número
+  public String huella(String numero) {
+    if (numero == null) {
+      return null;
+    }
+    try {
+      // Mac no es seguro entre hilos, se crea uno por llamada con la clave ya preparada
+      Mac mac = Mac.getInstance(ALGORITMO);
+      mac.init(clave);
+      return HexFormat.of().formatHex(mac.doFinal(canonico(numero).getBytes(StandardCharsets.US_ASCII)));
+    } catch (GeneralSecurityException e) {
+      // Todas las JVM tienen HmacSHA256
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Caché de tarjetas con dos índices
+ * - tarjetas: entrada principal, la tarjeta por su id
+ * - tarjetas-uuid: índice secundario uuid -> id, que nunca cambia porque el uuid no se actualiza
+ * Las lecturas por uuid resuelven el id y leen siempre la entrada principal, así solo hay una copia de cada tarjeta
+ * que refrescar o invalidar en cada modificación.
+ * Las cargas se hacen con Cache.get(key, loader), que en Caffeine bloquea la clave mientras se carga:
+ * un put o evict concurrente de esa clave espera a que termine la carga y la sobrescribe,
+ * de modo que una lectura lenta nunca deja una versión anterior encima de una modificación
+ */
+@Slf4j
+@Component
+public class TarjetasCache {
+  public static final String TARJETAS = "tarjetas";
+  public static final String TARJETAS_UUID = "tarjetas-uuid";
+
+  private final Cache tarjetas;
+  private final Cache tarjetasUuid;
+
+  public TarjetasCache(CacheManager cacheManager) {
+    this.tarjetas = Objects.requireNonNull(cacheManager.getCache(TARJETAS));
+    this.tarjetasUuid = Objects.requireNonNull(cacheManager.getCache(TARJETAS_UUID));
+  }
+
+  // Tarjeta por id, si no está se carga con el loader bloqueando solo esa clave
+  public TarjetaResponseDto get(Long id, Supplier<TarjetaResponseDto> loader) {
+    return load(tarjetas, id, loader);
+  }
+
+  // Id de la tarjeta con ese uuid, si no está se carga con el loader
+  public Long getId(UUID uuid, Supplier<Long> loader) {
+    return load(tarjetasUuid, uuid, loader);
+  }
+
+  // Tarjeta por id solo si ya está en caché, sin cargarla (lecturas reactivas, ver TarjetasReactiveServiceImpl)
+  public TarjetaResponseDto getIfPresent(Long id) {
+    return tarjetas.get(id, TarjetaResponseDto.class);
+  }
+
+  // Id de la tarjeta con ese uuid solo si ya está en el índice
+  public Long getIdIfPresent(UUID uuid) {
+    return tarjetasUuid.get(uuid, Long.class);
+  }
+
+  // Tarjeta nueva o modificada: refresca la entrada principal y el índice
+  public void put(TarjetaResponseDto tarjeta) {
+    log.debug("Refrescando tarjeta {} en caché", tarjeta.getId());
+    tarjetas.put(tarjeta.getId(), tarjeta);
+    tarjetasUuid.put(tarjeta.getUuid(), tarjeta.getId());
+  }
+
+  // Solo el índice uuid -> id: nunca cambia, así que se puede guardar con una lectura cualquiera
+  public void putId(UUID uuid, Long id) {
+    tarjetasUuid.put(uuid, id);
+  }
+
+  // Tarjeta borrada: invalida la entrada principal y el índice
+  public void evict(Long id, UUID uuid) {
+    log.debug("Invalidando tarjeta {} en caché", id);
+    tarjetas.evict(id);
+    tarjetasUuid.evict(uuid);
+  }
+
+  // Tarjeta borrada sin conocer su uuid: la entrada del índice se quita al resolverla (ver evictUuid)
+  public void evict(Long id) {
+    log.debug("Invalidando tarjeta {} en caché", id);
+    tarjetas.evict(id);
+  }
+
+  // Entrada del índice que apunta a una tarjeta que ya no existe
+  public void evictUuid(UUID uuid) {
+    tarjetasUuid.evict(uuid);
+  }
+
+  // Las excepciones del loader (por ejemplo TarjetaNotFoundException) llegan envueltas, las desenvolvemos
+  private <T> T load(Cache cache, Object key, Supplier<T> loader) {
+    try {
+      return cache.get(key, loader::get);
+    } catch (Cache.ValueRetrievalException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
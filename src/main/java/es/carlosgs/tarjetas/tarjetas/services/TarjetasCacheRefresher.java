@@ -0,0 +1,29 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.config.CacheRefresher;
+import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refresco anticipado de la caché de tarjetas por id
+ * El índice uuid -> id no lo necesita: el uuid de una tarjeta no cambia
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class TarjetasCacheRefresher implements CacheRefresher {
+  private final TarjetasRepository tarjetasRepository;
+
+  @Override
+  public String cacheName() {
+    return TarjetasCache.TARJETAS;
+  }
+
+  @Override
+  public Object reload(Object key) {
+    log.debug("Refrescando tarjeta {} en caché", key);
+    return tarjetasRepository.findResponseById((Long) key).orElse(null);
+  }
+}
@@ -0,0 +1,71 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.config.TarjetasCaducidadProperties;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import es.carlosgs.tarjetas.tarjetas.events.TarjetasPorCaducarEvent;
+import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Aviso de las tarjetas próximas a caducar
+ * Recorre por el índice de fecha de caducidad las tarjetas que caducan dentro de la ventana configurada,
+ * por clave (fechaCaducidad, id) en lotes acotados, y publica cada lote como un TarjetasPorCaducarEvent
+ * No es transaccional: cada lote es una consulta corta que devuelve su conexión al pool,
+ * y entre lotes se hace una pausa para no quitar conexiones a las peticiones
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class TarjetasCaducidadJob {
+  private final TarjetasRepository tarjetasRepository;
+  private final TarjetasCaducidadProperties caducidadProperties;
+  private final ApplicationEventPublisher eventPublisher;
+
+  @Scheduled(fixedDelayString = "${tarjetas.caducidad.intervalo:PT24H}",
+      initialDelayString = "${tarjetas.caducidad.intervalo:PT24H}")
+  public int avisar() {
+    LocalDate desde = LocalDate.now();
+    LocalDate hasta = desde.plus(caducidadProperties.getVentana());
+    int lote = caducidadProperties.getLote();
+    log.debug("Buscando tarjetas que caducan entre {} y {} en lotes de {}", desde, hasta, lote);
+    // Clave de la última tarjeta publicada, al principio la primera fecha de la ventana
+    LocalDate fecha = desde;
+    long id = 0L;
+    int total = 0;
+    List<TarjetaResponseDto> tarjetas;
+    do {
+      tarjetas = tarjetasRepository.findResponsesByFechaCaducidadBetweenAfter(fecha, hasta, id, Limit.of(lote));
+      if (tarjetas.isEmpty()) {
+        break;
+      }
+      eventPublisher.publishEvent(new TarjetasPorCaducarEvent(tarjetas, desde, hasta));
+      total += tarjetas.size();
+      fecha = tarjetas.getLast().getFechaCaducidad();
+      id = tarjetas.getLast().getId();
+    } while (tarjetas.size() == lote && pausa());
+    if (total > 0) {
+      log.info("Avisadas {} tarjetas que caducan antes de {}", total, hasta);
+    }
+    return total;
+  }
+
+  // Espera entre lotes, false si se interrumpe la tarea (por ejemplo al parar la aplicación)
+  private boolean pausa() {
+    try {
+      Thread.sleep(caducidadProperties.getPausa());
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Aviso de tarjetas por caducar interrumpido");
+      return false;
+    }
+  }
+}
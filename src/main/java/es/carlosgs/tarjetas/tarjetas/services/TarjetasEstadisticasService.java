@@ -0,0 +1,24 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasCaducidadMesDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasResumenDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasTramoSaldoDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TitularSaldoDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TitularSaldoPageResponseDto;
+
+import java.util.List;
+
+public interface TarjetasEstadisticasService {
+  TarjetasResumenDto getResumen();
+
+  // Saldo total de las tarjetas de cada titular, paginado por clave sobre el id del titular
+  TitularSaldoPageResponseDto getSaldosPorTitular(String cursor, Integer size);
+
+  TitularSaldoDto getSaldoByTitularId(Long titularId);
+
+  // Tarjetas que caducan en cada uno de los próximos meses, empezando por el actual
+  List<TarjetasCaducidadMesDto> getCaducidades(int meses);
+
+  // Distribución de los saldos por tramos
+  List<TarjetasTramoSaldoDto> getTramosSaldo();
+}
@@ -0,0 +1,102 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.paginacion.PaginasPorClave;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasCaducidadMesDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasResumenDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetasTramoSaldoDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TitularSaldoDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TitularSaldoPageResponseDto;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadRequestException;
+import es.carlosgs.tarjetas.tarjetas.mappers.TarjetaMapper;
+import es.carlosgs.tarjetas.tarjetas.mappers.TarjetasEstadisticasMapper;
+import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasRepository;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Estadísticas de las tarjetas, agregadas en la base de datos (ver TarjetasRepository)
+ * Van en una caché con caducidad corta (cache.specs.tarjetas-estadisticas): los cuadros de mando que consultan
+ * cada pocos segundos reutilizan el resultado en lugar de recorrer la tabla en cada petición.
+ * No se invalida al modificar tarjetas, los resultados pueden tener como mucho esa antigüedad
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+@CacheConfig(cacheNames = TarjetasEstadisticasServiceImpl.TARJETAS_ESTADISTICAS)
+public class TarjetasEstadisticasServiceImpl implements TarjetasEstadisticasService {
+  public static final String TARJETAS_ESTADISTICAS = "tarjetas-estadisticas";
+
+  // Número de meses de caducidades que se permite pedir
+  static final int MAX_MESES = 60;
+
+  private final TarjetasRepository tarjetasRepository;
+  private final TarjetasEstadisticasMapper estadisticasMapper;
+  private final TarjetaMapper tarjetaMapper;
+
+  @Override
+  @Cacheable(key = "'resumen'", sync = true)
+  public TarjetasResumenDto getResumen() {
+    log.info("Calculando el resumen de las tarjetas");
+    YearMonth mes = YearMonth.now();
+    return estadisticasMapper.toTarjetasResumenDto(
+        tarjetasRepository.summarize(mes.atDay(1), mes.atEndOfMonth()));
+  }
+
+  // Cada página es una entrada de la caché: ninguna consulta ni entrada crece con el número de titulares
+  @Override
+  @Cacheable(key = "'titulares-' + #cursor + '-' + #size", sync = true)
+  public TitularSaldoPageResponseDto getSaldosPorTitular(String cursor, Integer size) {
+    long lastId = PaginasPorClave.decodeCursor(cursor, TarjetaBadRequestException::new);
+    int pageSize = PaginasPorClave.pageSize(size, TarjetaBadRequestException::new);
+    log.info("Calculando el saldo total de cada titular desde id: {}", lastId);
+    // Pedimos un elemento más de los necesarios para saber si hay página siguiente
+    var saldos = tarjetasRepository.sumSaldoByTitularIdGreaterThanGroupByTitular(lastId, pageSize + 1);
+    boolean hasNext = saldos.size() > pageSize;
+    var content = hasNext ? saldos.subList(0, pageSize) : saldos;
+    return TitularSaldoPageResponseDto.builder()
+        .content(content.stream().map(tarjetaMapper::toTitularSaldoDto).toList())
+        .size(content.size())
+        .nextCursor(hasNext ? PaginasPorClave.encodeCursor(content.getLast().getTitularId()) : null)
+        .build();
+  }
+
+  @Override
+  @Cacheable(key = "'titular-' + #titularId", sync = true)
+  public TitularSaldoDto getSaldoByTitularId(Long titularId) {
+    log.info("Calculando el saldo total del titular con id: {}", titularId);
+    return tarjetasRepository.sumSaldoByTitularId(titularId)
+        .map(tarjetaMapper::toTitularSaldoDto)
+        .orElseThrow(() -> new TitularNotFoundException(titularId));
+  }
+
+  @Override
+  @Cacheable(key = "'caducidades-' + #meses", sync = true)
+  public List<TarjetasCaducidadMesDto> getCaducidades(int meses) {
+    if (meses < 1 || meses > MAX_MESES) {
+      throw new TarjetaBadRequestException("El número de meses debe estar entre 1 y " + MAX_MESES);
+    }
+    log.info("Calculando las caducidades de los próximos {} meses", meses);
+    LocalDate desde = YearMonth.now().atDay(1);
+    LocalDate hasta = YearMonth.now().plusMonths(meses - 1).atEndOfMonth();
+    return tarjetasRepository.countByFechaCaducidadBetweenGroupByMes(desde, hasta).stream()
+        .map(estadisticasMapper::toTarjetasCaducidadMesDto)
+        .toList();
+  }
+
+  @Override
+  @Cacheable(key = "'tramos-saldo'", sync = true)
+  public List<TarjetasTramoSaldoDto> getTramosSaldo() {
+    log.info("Calculando la distribución de los saldos");
+    return tarjetasRepository.countGroupBySaldoTramo().stream()
+        .map(estadisticasMapper::toTarjetasTramoSaldoDto)
+        .toList();
+  }
+}
@@ -0,0 +1,10 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface TarjetasExportService {
+  long exportNdjson(OutputStream outputStream) throws IOException;
+
+  long exportCsv(OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,118 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import es.carlosgs.tarjetas.tarjetas.mappers.TarjetaMapper;
+import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
+import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de todas las tarjetas en streaming
+ * Las tarjetas se leen con un cursor de base de datos y se escriben una a una en la salida,
+ * sacando cada entidad del contexto de persistencia después de escribirla
+ * para que la memoria no crezca con el número de tarjetas
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class TarjetasExportServiceImpl implements TarjetasExportService {
+  private static final String CSV_HEADER = "id,uuid,numero,cvc,fechaCaducidad,titular,saldo,createdAt,updatedAt";
+
+  private final TarjetasRepository tarjetasRepository;
+  private final TarjetaMapper tarjetaMapper;
+  private final ObjectMapper objectMapper;
+  private final EntityManager entityManager;
+
+  // Una tarjeta en JSON por línea (NDJSON)
+  @Transactional(readOnly = true)
+  @Override
+  public long exportNdjson(OutputStream outputStream) throws IOException {
+    log.info("Exportando tarjetas en NDJSON");
+    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    long total = 0;
+    try (Stream<Tarjeta> tarjetas = tarjetasRepository.streamAll()) {
+      Iterator<Tarjeta> iterator = tarjetas.iterator();
+      while (iterator.hasNext()) {
+        Tarjeta tarjeta = iterator.next();
+        writer.write(objectMapper.writeValueAsString(tarjetaMapper.toTarjetaResponseDto(tarjeta)));
+        writer.write('\n');
+        detach(tarjeta);
+        total++;
+      }
+    }
+    writer.flush();
+    log.info("Exportadas {} tarjetas en NDJSON", total);
+    return total;
+  }
+
+  // Una tarjeta por línea en CSV con cabecera
+  @Transactional(readOnly = true)
+  @Override
+  public long exportCsv(OutputStream outputStream) throws IOException {
+    log.info("Exportando tarjetas en CSV");
+    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    writer.write(CSV_HEADER);
+    writer.write('\n');
+    long total = 0;
+    try (Stream<Tarjeta> tarjetas = tarjetasRepository.streamAll()) {
+      Iterator<Tarjeta> iterator = tarjetas.iterator();
+      while (iterator.hasNext()) {
+        Tarjeta tarjeta = iterator.next();
+        writeCsvLine(writer, tarjetaMapper.toTarjetaResponseDto(tarjeta));
+        detach(tarjeta);
+        total++;
+      }
+    }
+    writer.flush();
+    log.info("Exportadas {} tarjetas en CSV", total);
+    return total;
+  }
+
+  // Sacamos la tarjeta y su titular del contexto de persistencia, ya no los necesitamos
+  private void detach(Tarjeta tarjeta) {
+    entityManager.detach(tarjeta);
+    if (tarjeta.getTitular() != null) {
+      entityManager.detach(tarjeta.getTitular());
+    }
+  }
+
+  private void writeCsvLine(Writer writer, TarjetaResponseDto tarjeta) throws IOException {
+    writer.write(String.join(",",
+        csv(tarjeta.getId()),
+        csv(tarjeta.getUuid()),
+        csv(tarjeta.getNumero()),
+        csv(tarjeta.getCvc()),
+        csv(tarjeta.getFechaCaducidad()),
+        csv(tarjeta.getTitular()),
+        csv(tarjeta.getSaldo()),
+        csv(tarjeta.getCreatedAt()),
+        csv(tarjeta.getUpdatedAt())));
+    writer.write('\n');
+  }
+
+  // Escapa un campo CSV: entre comillas si contiene separadores, comillas o saltos de línea
+  private String csv(Object value) {
+    if (value == null) {
+      return "";
+    }
+    String text = value.toString();
+    if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+      return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+    return text;
+  }
+}
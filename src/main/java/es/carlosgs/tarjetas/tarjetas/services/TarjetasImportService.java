@@ -0,0 +1,12 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaBulkResponseDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
+
+import java.util.Iterator;
+
+public interface TarjetasImportService {
+  // Si next() lanza RuntimeJsonMappingException esa fila se informa como error y se sigue con la siguiente;
+  // cualquier otra excepción al leer se informa en esa fila y termina la importación, guardando lo ya leído
+  TarjetaBulkResponseDto saveAll(Iterator<TarjetaCreateDto> tarjetas);
+}
@@ -0,0 +1,190 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaBulkErrorDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaBulkResponseDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
+import es.carlosgs.tarjetas.tarjetas.mappers.TarjetaMapper;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularNotFoundException;
+import es.carlosgs.tarjetas.titulares.models.Titular;
+import es.carlosgs.tarjetas.titulares.search.Trigramas;
+import es.carlosgs.tarjetas.titulares.services.TitularesService;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Importación masiva de tarjetas
+ * Cada fila se lee y se valida por separado y las que fallan se informan sin abortar el resto,
+ * los titulares se resuelven una sola vez por nombre distinto
+ * y las inserciones se envían en lotes JDBC, cada lote en su propia transacción
+ * Como los ids salen de una secuencia con reserva de bloques, Hibernate agrupa los INSERT
+ * (hibernate.jdbc.batch_size) y al terminar cada lote se vacía el contexto de persistencia
+ * Si un lote falla al guardarse se reintenta fila a fila, y solo las filas que vuelven a fallar se informan
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class TarjetasImportServiceImpl implements TarjetasImportService {
+  // Número de filas por transacción, múltiplo del tamaño de lote JDBC de Hibernate
+  static final int BATCH_SIZE = 500;
+
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+  private final TarjetaMapper tarjetaMapper;
+  private final TitularesService titularesService;
+  private final Validator validator;
+
+  @Override
+  public TarjetaBulkResponseDto saveAll(Iterator<TarjetaCreateDto> tarjetas) {
+    log.info("Importando tarjetas en lotes de {}", BATCH_SIZE);
+    // Id de titular por nombre normalizado (vacío si no existe), para no repetir la búsqueda
+    Map<String, Optional<Long>> titularIds = new HashMap<>();
+    List<TarjetaBulkErrorDto> errores = new ArrayList<>();
+    List<TarjetaLote> lote = new ArrayList<>(BATCH_SIZE);
+    int total = 0;
+    int insertadas = 0;
+
+    while (true) {
+      int indice = total;
+      TarjetaCreateDto tarjeta;
+      try {
+        if (!tarjetas.hasNext()) {
+          break;
+        }
+        tarjeta = tarjetas.next();
+      } catch (RuntimeJsonMappingException e) {
+        // La fila no se puede convertir en una tarjeta: se informa y se sigue con la siguiente
+        total++;
+        errores.add(error(indice, "tarjeta", "La fila no es una tarjeta válida: " + e.getMessage()));
+        continue;
+      } catch (RuntimeException e) {
+        // No se puede seguir leyendo (JSON mal formado en un array, error de lectura):
+        // se informa en esta fila y se guarda lo leído hasta aquí
+        log.warn("Importación interrumpida en la fila {}: {}", indice, e.getMessage());
+        errores.add(error(indice, "tarjeta", "No se pueden leer más filas: " + e.getMessage()));
+        break;
+      }
+      total++;
+      Map<String, String> erroresFila = validar(tarjeta);
+      if (erroresFila.isEmpty()) {
+        Optional<Long> titularId = titularIds.computeIfAbsent(
+            Trigramas.normalizar(tarjeta.getTitular()), nombre -> findTitularId(tarjeta.getTitular()));
+        if (titularId.isPresent()) {
+          lote.add(new TarjetaLote(indice, tarjeta, titularId.get()));
+        } else {
+          erroresFila.put("titular", "Titular " + tarjeta.getTitular() + " no encontrado");
+        }
+      }
+      if (!erroresFila.isEmpty()) {
+        errores.add(TarjetaBulkErrorDto.builder().indice(indice).errores(erroresFila).build());
+      }
+      if (lote.size() == BATCH_SIZE) {
+        insertadas += insertar(lote, errores);
+        lote.clear();
+      }
+    }
+    if (!lote.isEmpty()) {
+      insertadas += insertar(lote, errores);
+    }
+    // Los errores al guardar un lote llegan después de los de validación de filas posteriores
+    errores.sort(Comparator.comparingInt(TarjetaBulkErrorDto::getIndice));
+
+    log.info("Importadas {} de {} tarjetas, {} con errores", insertadas, total, errores.size());
+    return TarjetaBulkResponseDto.builder()
+        .total(total)
+        .insertadas(insertadas)
+        .errores(errores)
+        .build();
+  }
+
+  // Mismas restricciones que en el POST de una tarjeta, con el campo y el mensaje de cada error
+  private Map<String, String> validar(TarjetaCreateDto tarjeta) {
+    Map<String, String> errores = new HashMap<>();
+    if (tarjeta == null) {
+      errores.put("tarjeta", "La tarjeta no puede ser nula");
+      return errores;
+    }
+    Set<ConstraintViolation<TarjetaCreateDto>> violaciones = validator.validate(tarjeta);
+    violaciones.forEach(v -> errores.put(v.getPropertyPath().toString(), v.getMessage()));
+    // Las columnas son obligatorias: una fila incompleta haría fallar el lote entero al insertar
+    if (tarjeta.getNumero() == null) {
+      errores.putIfAbsent("numero", "El número de la tarjeta no puede estar vacío");
+    }
+    if (tarjeta.getCvc() == null) {
+      errores.putIfAbsent("cvc", "El CVC no puede estar vacío");
+    }
+    if (tarjeta.getFechaCaducidad() == null) {
+      errores.putIfAbsent("fechaCaducidad", "La fecha de caducidad no puede estar vacía");
+    }
+    if (tarjeta.getSaldo() == null) {
+      errores.putIfAbsent("saldo", "El saldo no puede estar vacío");
+    }
+    return errores;
+  }
+
+  private Optional<Long> findTitularId(String nombre) {
+    try {
+      return Optional.of(titularesService.findByNombre(nombre).getId());
+    } catch (TitularNotFoundException e) {
+      return Optional.empty();
+    }
+  }
+
+  private TarjetaBulkErrorDto error(int indice, String campo, String mensaje) {
+    Map<String, String> errores = new HashMap<>();
+    errores.put(campo, mensaje);
+    return TarjetaBulkErrorDto.builder().indice(indice).errores(errores).build();
+  }
+
+  // Si el lote falla (por ejemplo, una restricción de la base de datos) se ha deshecho entero:
+  // se reintenta cada fila en su propia transacción para guardar las correctas e informar de las demás
+  private int insertar(List<TarjetaLote> lote, List<TarjetaBulkErrorDto> errores) {
+    try {
+      return guardar(lote);
+    } catch (RuntimeException e) {
+      log.warn("Falla el lote de {} tarjetas, se reintenta fila a fila: {}", lote.size(), e.getMessage());
+    }
+    int insertadas = 0;
+    for (TarjetaLote fila : lote) {
+      try {
+        insertadas += guardar(List.of(fila));
+      } catch (RuntimeException e) {
+        log.warn("No se ha podido guardar la fila {}: {}", fila.indice(), e.getMessage());
+        errores.add(error(fila.indice(), "tarjeta", "No se ha podido guardar la tarjeta"));
+      }
+    }
+    return insertadas;
+  }
+
+  private int guardar(List<TarjetaLote> lote) {
+    log.debug("Insertando lote de {} tarjetas", lote.size());
+    transactionTemplate.executeWithoutResult(status -> {
+      for (TarjetaLote fila : lote) {
+        // Referencia al titular por id, sin consultarlo
+        Titular titular = entityManager.getReference(Titular.class, fila.titularId());
+        entityManager.persist(tarjetaMapper.toTarjeta(fila.tarjeta(), titular));
+      }
+      entityManager.flush();
+      entityManager.clear();
+    });
+    return lote.size();
+  }
+
+  // Tarjeta válida pendiente de insertar, con su posición en la petición y el id de su titular ya resuelto
+  private record TarjetaLote(int indice, TarjetaCreateDto tarjeta, Long titularId) {
+  }
+}
@@ -0,0 +1,45 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.config.TarjetasBorradoProperties;
+import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Purga de las tarjetas con borrado lógico
+ * Borra físicamente las tarjetas marcadas como borradas hace más del tiempo de retención,
+ * en lotes pequeños (cada uno en su transacción) para no bloquear la tabla ni hacer crecer el log,
+ * y así la tabla no acumula filas muertas
+ * Solo existe con tarjetas.borrado.logico=true
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "tarjetas.borrado.logico", havingValue = "true", matchIfMissing = true)
+public class TarjetasPurgaJob {
+  private final TarjetasRepository tarjetasRepository;
+  private final TarjetasBorradoProperties borradoProperties;
+
+  @Scheduled(fixedDelayString = "${tarjetas.borrado.purga-intervalo:PT1H}",
+      initialDelayString = "${tarjetas.borrado.purga-intervalo:PT1H}")
+  public int purgar() {
+    LocalDateTime limite = LocalDateTime.now().minus(borradoProperties.getPurgaRetencion());
+    int lote = borradoProperties.getPurgaLote();
+    log.debug("Purgando tarjetas borradas antes de {} en lotes de {}", limite, lote);
+    int total = 0;
+    int borradas;
+    do {
+      borradas = tarjetasRepository.purgeDeletedBefore(limite, lote);
+      total += borradas;
+    } while (borradas == lote);
+    if (total > 0) {
+      log.info("Purgadas {} tarjetas borradas", total);
+    }
+    return total;
+  }
+}
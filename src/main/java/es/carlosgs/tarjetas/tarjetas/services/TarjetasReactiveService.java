@@ -0,0 +1,14 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface TarjetasReactiveService {
+  // Todas las tarjetas que cumplen los filtros, en orden de id y al ritmo que las consume el cliente
+  Flux<TarjetaResponseDto> findAll(String numero, String titular);
+
+  Mono<TarjetaResponseDto> findById(Long id);
+
+  Mono<TarjetaResponseDto> findByUuid(String uuid);
+}
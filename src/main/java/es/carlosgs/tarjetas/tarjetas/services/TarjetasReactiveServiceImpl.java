@@ -0,0 +1,80 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadUuidException;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaNotFoundException;
+import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasReactiveRepository;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.search.Trigramas;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Lecturas de tarjetas sin bloquear, con los mismos resultados que TarjetasServiceImpl
+ * Las lecturas por id y uuid responden desde la caché de tarjetas si la entrada ya está,
+ * pero los fallos se leen con R2DBC sin guardarlos: la caché solo se rellena con Cache.get bloqueando la clave,
+ * que es lo que impide que una lectura antigua pise una modificación (ver TarjetasCache)
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class TarjetasReactiveServiceImpl implements TarjetasReactiveService {
+  private final TarjetasReactiveRepository tarjetasReactiveRepository;
+  private final TarjetasCache tarjetasCache;
+  private final NumerosTarjeta numerosTarjeta;
+
+  @Override
+  public Flux<TarjetaResponseDto> findAll(String numero, String titular) {
+    String huella = numero == null || numero.isEmpty() ? null : numerosTarjeta.huella(numero);
+    // Por titular, con las mismas consultas (y planes) que TarjetasServiceImpl
+    if (titular != null && !titular.isEmpty()) {
+      log.info("Buscando tarjetas en streaming por numero: {} y titular: {}", numero, titular);
+      String normalizado = Trigramas.normalizar(titular);
+      if (huella != null) {
+        return tarjetasReactiveRepository.findAllResponsesByHuellaAndTitularContaining(huella, normalizado);
+      }
+      Set<String> trigramas = Trigramas.trigramas(normalizado);
+      if (trigramas.isEmpty()) {
+        return tarjetasReactiveRepository.findAllResponsesByTitularContaining(normalizado);
+      }
+      return tarjetasReactiveRepository.findAllResponsesByTitularTrigramas(trigramas, normalizado);
+    }
+    if (huella != null) {
+      log.info("Buscando tarjetas en streaming por numero: {}", numero);
+      return tarjetasReactiveRepository.findAllResponsesByHuella(huella);
+    }
+    log.info("Buscando todas las tarjetas en streaming");
+    return tarjetasReactiveRepository.findAllResponses();
+  }
+
+  @Override
+  public Mono<TarjetaResponseDto> findById(Long id) {
+    log.info("Buscando tarjeta por id {}", id);
+    return Mono.justOrEmpty(tarjetasCache.getIfPresent(id))
+        .switchIfEmpty(Mono.defer(() -> tarjetasReactiveRepository.findResponseById(id)))
+        .switchIfEmpty(Mono.error(() -> new TarjetaNotFoundException(id)));
+  }
+
+  @Override
+  public Mono<TarjetaResponseDto> findByUuid(String uuid) {
+    log.info("Buscando tarjeta por uuid: {}", uuid);
+    UUID myUUID;
+    try {
+      myUUID = UUID.fromString(uuid);
+    } catch (IllegalArgumentException e) {
+      return Mono.error(new TarjetaBadUuidException(uuid));
+    }
+    // Con el id del índice se lee la entrada principal, como en TarjetasServiceImpl
+    Long id = tarjetasCache.getIdIfPresent(myUUID);
+    TarjetaResponseDto cached = id == null ? null : tarjetasCache.getIfPresent(id);
+    return Mono.justOrEmpty(cached)
+        .switchIfEmpty(Mono.defer(() -> tarjetasReactiveRepository.findResponseByUuid(myUUID)))
+        .switchIfEmpty(Mono.error(() -> new TarjetaNotFoundException(myUUID)));
+  }
+}
@@ -1,21 +1,47 @@
 package es.carlosgs.tarjetas.tarjetas.services;
 
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaLoteItemDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaPageResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaUpdateDto;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
 
 import java.util.List;
 
 public interface TarjetasService {
-  List<TarjetaResponseDto> findAll(String numero, String titular);
+  TarjetaPageResponseDto findAll(String numero, String titular, String cursor, Integer size);
+
+  // Tarjetas de un titular, paginadas por clave como findAll
+  TarjetaPageResponseDto findAllByTitularId(Long titularId, String cursor, Integer size);
 
   TarjetaResponseDto findById(Long id);
 
   TarjetaResponseDto findByUuid(String uuid);
 
+  // Varias tarjetas por id o por uuid, en el orden pedido y marcando las que no existen
+  List<TarjetaLoteItemDto> findAllByIds(List<Long> ids);
+
+  List<TarjetaLoteItemDto> findAllByUuids(List<String> uuids);
+
   TarjetaResponseDto save(TarjetaCreateDto tarjetaCreateDto);
 
-  TarjetaResponseDto update(Long id, TarjetaUpdateDto tarjetaUpdateDto);
+  // version: la que debe tener la tarjeta para actualizarla (If-Match), null para no comprobarla
+  // La API siempre la pide (428 sin If-Match); null queda para usos internos sin clientes concurrentes
+  TarjetaResponseDto update(Long id, TarjetaUpdateDto tarjetaUpdateDto, Long version);
+
+  default TarjetaResponseDto update(Long id, TarjetaUpdateDto tarjetaUpdateDto) {
+    return update(id, tarjetaUpdateDto, null);
+  }
+
+  // Actualiza sin leer la tarjeta después, para cuando no se necesita devolverla
+  void updateById(Long id, TarjetaUpdateDto tarjetaUpdateDto, Long version);
+
+  // Suma el importe al saldo
+  TarjetaResponseDto abonar(Long id, Dinero importe);
+
+  // Resta el importe del saldo si es suficiente
+  TarjetaResponseDto cargar(Long id, Dinero importe);
 
   void deleteById(Long id);
 
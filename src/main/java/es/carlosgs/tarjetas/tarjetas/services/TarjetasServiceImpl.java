@@ -1,26 +1,39 @@
 package es.carlosgs.tarjetas.tarjetas.services;
 
+import es.carlosgs.tarjetas.config.TarjetasBorradoProperties;
+import es.carlosgs.tarjetas.paginacion.PaginasPorClave;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaLoteItemDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaPageResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaUpdateDto;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadRequestException;
 import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadUuidException;
 import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaNotFoundException;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaPreconditionFailedException;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaSaldoInsuficienteException;
 import es.carlosgs.tarjetas.tarjetas.mappers.TarjetaMapper;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
 import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
 import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasRepository;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.search.Trigramas;
 import es.carlosgs.tarjetas.titulares.services.TitularesService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
-@CacheConfig(cacheNames = {"tarjetas"})
 @Slf4j
 @RequiredArgsConstructor
 @Service
@@ -28,58 +41,200 @@ public class TarjetasServiceImpl implements TarjetasService {
   private final TarjetasRepository tarjetasRepository;
   private final TarjetaMapper tarjetaMapper;
   private final TitularesService titularesService;
+  private final TarjetasCache tarjetasCache;
+  private final TarjetasBorradoProperties borradoProperties;
+  private final NumerosTarjeta numerosTarjeta;
 
   @Override
-  public List<TarjetaResponseDto> findAll(String numero, String titular) {
+  public TarjetaPageResponseDto findAll(String numero, String titular, String cursor, Integer size) {
+    // Último id devuelto en la página anterior (0 si es la primera) y tamaño de página acotado
+    long lastId = decodeCursor(cursor);
+    int pageSize = pageSize(size);
+    // Pedimos un elemento más de los necesarios para saber si hay página siguiente
+    Limit limit = Limit.of(pageSize + 1);
+    List<TarjetaResponseDto> tarjetas;
     // Si todos los args están vacíos o nulos, devolvemos todas las tarjetas
     if ((numero == null || numero.isEmpty()) && (titular == null || titular.isEmpty())) {
-      log.info("Buscando todas las tarjetas");
-      return tarjetaMapper.toResponseDtoList(tarjetasRepository.findAll());
+      log.info("Buscando todas las tarjetas desde id: {}", lastId);
+      tarjetas = tarjetasRepository.findResponsesByIdGreaterThan(lastId, limit);
     }
     // Si el numero no está vacío, pero el titular si, buscamos por numero
-    if ((numero != null && !numero.isEmpty()) && (titular == null || titular.isEmpty())) {
-      log.info("Buscando tarjetas por numero: {}", numero);
-      return tarjetaMapper.toResponseDtoList(tarjetasRepository.findByNumero(numero));
+    else if ((numero != null && !numero.isEmpty()) && (titular == null || titular.isEmpty())) {
+      log.info("Buscando tarjetas por numero: {} desde id: {}", numero, lastId);
+      tarjetas = tarjetasRepository.findResponsesByHuellaAndIdGreaterThan(numerosTarjeta.huella(numero), lastId, limit);
     }
     // Si el numero está vacío, pero el titular no, buscamos por titular
-    if (numero == null || numero.isEmpty()) {
-      log.info("Buscando tarjetas por titular: {}", titular);
-      return tarjetaMapper.toResponseDtoList(
-              tarjetasRepository.findByTitularContainsIgnoreCase(titular.toLowerCase()));
+    else if (numero == null || numero.isEmpty()) {
+      log.info("Buscando tarjetas por titular: {} desde id: {}", titular, lastId);
+      tarjetas = findResponsesByTitular(titular, lastId, limit);
     }
     // Si el numero y el titular no están vacíos, buscamos por ambos
-    log.info("Buscando tarjetas por numero: {} y titular: {}", numero, titular);
-    return tarjetaMapper.toResponseDtoList(
-            tarjetasRepository.findByNumeroAndTitularContainsIgnoreCase(numero, titular.toLowerCase()));
+    else {
+      log.info("Buscando tarjetas por numero: {} y titular: {} desde id: {}", numero, titular, lastId);
+      tarjetas = tarjetasRepository.findResponsesByHuellaAndTitularNombreContainingAndIdGreaterThan(
+          numerosTarjeta.huella(numero), Trigramas.normalizar(titular), lastId, limit);
+    }
+    return toPage(tarjetas, pageSize);
+  }
+
+  // Por subcadena del nombre del titular, sin distinguir mayúsculas, con el índice de trigramas si la cadena es
+  // al menos de un trigrama; en los dos casos es una sola consulta limitada a la página
+  private List<TarjetaResponseDto> findResponsesByTitular(String titular, long lastId, Limit limit) {
+    String normalizado = Trigramas.normalizar(titular);
+    Set<String> trigramas = Trigramas.trigramas(normalizado);
+    if (trigramas.isEmpty()) {
+      return tarjetasRepository.findResponsesByTitularNombreContainingAndIdGreaterThan(normalizado, lastId, limit);
+    }
+    return tarjetasRepository.findResponsesByTitularTrigramasAndIdGreaterThan(trigramas, trigramas.size(),
+        normalizado, lastId, limit);
+  }
+
+  // El titular se comprueba por su caché (404 si no existe) y sus tarjetas salen del índice por titular_id
+  @Override
+  public TarjetaPageResponseDto findAllByTitularId(Long titularId, String cursor, Integer size) {
+    long lastId = decodeCursor(cursor);
+    int pageSize = pageSize(size);
+    log.info("Buscando tarjetas del titular con id: {} desde id: {}", titularId, lastId);
+    titularesService.findById(titularId);
+    return toPage(tarjetasRepository.findResponsesByTitularIdAndIdGreaterThan(titularId, lastId,
+        Limit.of(pageSize + 1)), pageSize);
+  }
+
+  // Construye la página a partir de los resultados (hasta pageSize + 1) y calcula el cursor siguiente
+  private TarjetaPageResponseDto toPage(List<TarjetaResponseDto> resultados, int pageSize) {
+    boolean hasNext = resultados.size() > pageSize;
+    var content = hasNext ? resultados.subList(0, pageSize) : resultados;
+    return TarjetaPageResponseDto.builder()
+        .content(content)
+        .size(content.size())
+        .nextCursor(hasNext ? PaginasPorClave.encodeCursor(content.getLast().getId()) : null)
+        .build();
+  }
+
+  private int pageSize(Integer size) {
+    return PaginasPorClave.pageSize(size, TarjetaBadRequestException::new);
+  }
+
+  private long decodeCursor(String cursor) {
+    return PaginasPorClave.decodeCursor(cursor, TarjetaBadRequestException::new);
   }
 
-  // Cachea con el id como key
-  @Cacheable(key = "#id")
+  // Desde la caché por id, si no está se carga de la base de datos
   @Override
   public TarjetaResponseDto findById(Long id) {
     log.info("Buscando tarjeta por id {}", id);
-
-    return tarjetaMapper.toTarjetaResponseDto(tarjetasRepository.findById(id)
+    return tarjetasCache.get(id, () -> tarjetasRepository.findResponseById(id)
         .orElseThrow(()-> new TarjetaNotFoundException(id)));
   }
 
-  // Cachea con el uuid como key
-  @Cacheable(key = "#uuid")
+  // Se resuelve el id con el índice uuid -> id de la caché y se lee la tarjeta por su id
   @Override
   public TarjetaResponseDto findByUuid(String uuid) {
     log.info("Buscando tarjeta por uuid: {}", uuid);
+    UUID myUUID;
     try {
-      var myUUID = UUID.fromString(uuid);
-      return tarjetaMapper.toTarjetaResponseDto(tarjetasRepository.findByUuid(myUUID)
-          .orElseThrow(() -> new TarjetaNotFoundException(myUUID)));
+      myUUID = UUID.fromString(uuid);
     } catch (IllegalArgumentException e) {
       throw new TarjetaBadUuidException(uuid);
     }
+    Long id = tarjetasCache.getId(myUUID, () -> tarjetasRepository.findIdByUuid(myUUID)
+        .orElseThrow(() -> new TarjetaNotFoundException(myUUID)));
+    try {
+      return findById(id);
+    } catch (TarjetaNotFoundException e) {
+      // La tarjeta se ha borrado, quitamos su entrada del índice
+      tarjetasCache.evictUuid(myUUID);
+      throw new TarjetaNotFoundException(myUUID);
+    }
+  }
+
+  // Las que están en la caché no se consultan, el resto se lee en una sola consulta WHERE id IN (...)
+  // Las leídas no se guardan en la caché: solo Cache.get, bloqueando la clave, evita pisar una modificación concurrente
+  @Override
+  public List<TarjetaLoteItemDto> findAllByIds(List<Long> ids) {
+    checkLoteSize(ids);
+    log.info("Buscando {} tarjetas por id", ids.size());
+    Map<Long, TarjetaResponseDto> encontradas = new HashMap<>();
+    Set<Long> fallos = new LinkedHashSet<>();
+    for (Long id : ids) {
+      var cached = tarjetasCache.getIfPresent(id);
+      if (cached != null) {
+        encontradas.put(id, cached);
+      } else {
+        fallos.add(id);
+      }
+    }
+    if (!fallos.isEmpty()) {
+      log.debug("Leyendo {} tarjetas que no están en caché", fallos.size());
+      tarjetasRepository.findResponsesByIdIn(fallos).forEach(tarjeta -> encontradas.put(tarjeta.getId(), tarjeta));
+    }
+    return ids.stream().map(id -> toLoteItem(id.toString(), encontradas.get(id))).toList();
+  }
+
+  // Igual que por id, resolviendo cada uuid con el índice de la caché; los fallos se leen con WHERE uuid IN (...)
+  // El índice uuid -> id sí se rellena, porque no cambia nunca
+  @Override
+  public List<TarjetaLoteItemDto> findAllByUuids(List<String> uuids) {
+    checkLoteSize(uuids);
+    log.info("Buscando {} tarjetas por uuid", uuids.size());
+    List<UUID> claves = new ArrayList<>(uuids.size());
+    for (String uuid : uuids) {
+      try {
+        claves.add(UUID.fromString(uuid));
+      } catch (IllegalArgumentException e) {
+        throw new TarjetaBadUuidException(uuid);
+      }
+    }
+    Map<UUID, TarjetaResponseDto> encontradas = new HashMap<>();
+    Set<UUID> fallos = new LinkedHashSet<>();
+    for (UUID uuid : claves) {
+      Long id = tarjetasCache.getIdIfPresent(uuid);
+      var cached = id == null ? null : tarjetasCache.getIfPresent(id);
+      if (cached != null) {
+        encontradas.put(uuid, cached);
+      } else {
+        fallos.add(uuid);
+      }
+    }
+    if (!fallos.isEmpty()) {
+      log.debug("Leyendo {} tarjetas que no están en caché", fallos.size());
+      for (var tarjeta : tarjetasRepository.findResponsesByUuidIn(fallos)) {
+        encontradas.put(tarjeta.getUuid(), tarjeta);
+        tarjetasCache.putId(tarjeta.getUuid(), tarjeta.getId());
+      }
+      // Las que no existen pueden tener una entrada del índice de una tarjeta ya borrada
+      fallos.stream().filter(uuid -> !encontradas.containsKey(uuid)).forEach(tarjetasCache::evictUuid);
+    }
+    List<TarjetaLoteItemDto> resultado = new ArrayList<>(uuids.size());
+    for (int i = 0; i < uuids.size(); i++) {
+      resultado.add(toLoteItem(uuids.get(i), encontradas.get(claves.get(i))));
+    }
+    return resultado;
+  }
 
+  private void checkLoteSize(List<?> claves) {
+    if (claves == null || claves.isEmpty()) {
+      throw new TarjetaBadRequestException("Hay que indicar al menos una tarjeta");
+    }
+    if (claves.size() > PaginasPorClave.MAX_PAGE_SIZE) {
+      throw new TarjetaBadRequestException("No se pueden pedir más de " + PaginasPorClave.MAX_PAGE_SIZE
+          + " tarjetas a la vez");
+    }
+    // List.of no admite contains(null): lanzaría NullPointerException en vez de un 400
+    if (claves.stream().anyMatch(Objects::isNull)) {
+      throw new TarjetaBadRequestException("Las claves de las tarjetas no pueden estar vacías");
+    }
   }
 
-  // Cachea con el id del resultado de la operación como key
-  @CachePut(key = "#result.id")
+  private TarjetaLoteItemDto toLoteItem(String clave, TarjetaResponseDto tarjeta) {
+    return TarjetaLoteItemDto.builder()
+        .clave(clave)
+        .encontrada(tarjeta != null)
+        .tarjeta(tarjeta)
+        .build();
+  }
+
+  // Refresca la caché con la tarjeta guardada
   @Override
   public TarjetaResponseDto save(TarjetaCreateDto tarjetaCreateDto) {
     log.info("Guardando tarjeta: {}", tarjetaCreateDto);
@@ -88,33 +243,89 @@ public class TarjetasServiceImpl implements TarjetasService {
     // Creamos la tarjeta nueva con los datos que nos vienen
     Tarjeta nuevaTarjeta = tarjetaMapper.toTarjeta(tarjetaCreateDto, titular);
     // La guardamos en el repositorio
-    return tarjetaMapper.toTarjetaResponseDto(tarjetasRepository.save(nuevaTarjeta));
+    var saved = tarjetaMapper.toTarjetaResponseDto(tarjetasRepository.save(nuevaTarjeta));
+    tarjetasCache.put(saved);
+    return saved;
   }
 
-  @CachePut(key = "#result.id")
+  // Actualiza y lee la tarjeta resultante (por la caché, que se acaba de invalidar)
   @Override
-  public TarjetaResponseDto update(Long id, TarjetaUpdateDto tarjetaUpdateDto) {
-    log.info("Actualizando tarjeta por id: {}", id);
-    // Si no existe lanza excepción
-    var tarjetaActual = tarjetasRepository.findById(id).orElseThrow(()-> new TarjetaNotFoundException(id));
-    // Actualizamos la tarjeta con los datos que nos vienen
-    Tarjeta tarjetaActualizada =  tarjetaMapper.toTarjeta(tarjetaUpdateDto, tarjetaActual);
-    // La guardamos en el repositorio
-    return tarjetaMapper.toTarjetaResponseDto(tarjetasRepository.save(tarjetaActualizada));
+  public TarjetaResponseDto update(Long id, TarjetaUpdateDto tarjetaUpdateDto, Long version) {
+    updateById(id, tarjetaUpdateDto, version);
+    return findById(id);
   }
 
-  // El key es opcional, si no se indica
-  @CacheEvict(key = "#id")
+  // Una sola sentencia UPDATE con los campos que nos vienen, sin leer antes la tarjeta
+  // Si no afecta a ninguna fila, no existía o (con version) otro la ha modificado antes
+  @Override
+  public void updateById(Long id, TarjetaUpdateDto tarjetaUpdateDto, Long version) {
+    log.info("Actualizando tarjeta por id: {} en la versión: {}", id, version);
+    int actualizadas = tarjetasRepository.updateById(id,
+        tarjetaUpdateDto.getNumero(),
+        numerosTarjeta.huella(tarjetaUpdateDto.getNumero()),
+        tarjetaUpdateDto.getCvc(),
+        tarjetaUpdateDto.getFechaCaducidad(),
+        tarjetaUpdateDto.getSaldo() == null ? null : tarjetaUpdateDto.getSaldo().toBigDecimal(),
+        LocalDateTime.now(),
+        version);
+    if (actualizadas == 0) {
+      // Solo en el caso de fallo se consulta si existe, para distinguir 404 de 412
+      if (version != null && tarjetasRepository.existsById(id)) {
+        throw new TarjetaPreconditionFailedException(id, version);
+      }
+      throw new TarjetaNotFoundException(id);
+    }
+    // Se invalida en lugar de refrescar: una lectura concurrente más antigua no puede pisar la nueva versión
+    // El índice por uuid sigue siendo válido, el uuid no se actualiza
+    tarjetasCache.evict(id);
+  }
+
+  // El saldo se suma en la propia sentencia UPDATE, así los abonos concurrentes no se pisan
+  @Override
+  public TarjetaResponseDto abonar(Long id, Dinero importe) {
+    log.info("Abonando {} en la tarjeta con id: {}", importe, id);
+    if (tarjetasRepository.addSaldoById(id, importe.toBigDecimal(), LocalDateTime.now()) == 0) {
+      throw new TarjetaNotFoundException(id);
+    }
+    tarjetasCache.evict(id);
+    return findById(id);
+  }
+
+  // La comprobación del saldo y la resta son la misma sentencia, así nunca queda en negativo
+  @Override
+  public TarjetaResponseDto cargar(Long id, Dinero importe) {
+    log.info("Cargando {} en la tarjeta con id: {}", importe, id);
+    if (tarjetasRepository.subtractSaldoById(id, importe.toBigDecimal(), LocalDateTime.now()) == 0) {
+      if (tarjetasRepository.existsById(id)) {
+        throw new TarjetaSaldoInsuficienteException(id);
+      }
+      throw new TarjetaNotFoundException(id);
+    }
+    tarjetasCache.evict(id);
+    return findById(id);
+  }
+
+  // Una sola sentencia: UPDATE con borrado lógico o DELETE, sin leer antes la tarjeta
+  // Si no afecta a ninguna fila, no existía
   @Override
   public void deleteById(Long id) {
     log.debug("Borrando tarjeta por id: {}", id);
-    // Si no existe lanza excepción
-    tarjetasRepository.findById(id).orElseThrow(()-> new TarjetaNotFoundException(id));
-    // La borramos del repositorio si existe
-    tarjetasRepository.deleteById(id);
-    // O lo marcamos como borrado
-    //tarjetasRepository.updateIsDeletedToTrueById(id);
-
+    // Si está en caché ya conocemos su uuid, sin consultarlo
+    var cached = tarjetasCache.getIfPresent(id);
+    int borradas = borradoProperties.isLogico()
+        // La marcamos como borrada
+        ? tarjetasRepository.updateIsDeletedToTrueById(id)
+        // O la borramos del repositorio
+        : tarjetasRepository.deleteByIdReturningCount(id);
+    if (borradas == 0) {
+      throw new TarjetaNotFoundException(id);
+    }
+    if (cached != null) {
+      tarjetasCache.evict(id, cached.getUuid());
+    } else {
+      // Sin el uuid, la entrada del índice se invalida la próxima vez que se lea (findByUuid)
+      tarjetasCache.evict(id);
+    }
   }
 
 }
@@ -14,4 +14,6 @@ public @interface CreditCardNumber {
   String message() default "El número de tarjeta no es válido";
   Class<?>[] groups() default {};
   Class<? extends Payload>[] payload() default {};
+  // Comprobar también el dígito de control de Luhn
+  boolean luhn() default false;
 }
@@ -4,11 +4,22 @@ package es.carlosgs.tarjetas.tarjetas.validators;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 
+/**
+ * Valida el número de tarjeta recorriendo sus caracteres una sola vez, sin expresiones regulares ni reservas de memoria
+ * Formatos admitidos: 16 dígitos seguidos, o en 4 grupos de 4 separados por espacios o por guiones (el mismo separador)
+ * Si la anotación lo pide, comprueba además el dígito de control de Luhn
+ */
 public class CreditCardNumberValidator implements
     ConstraintValidator<CreditCardNumber, String> {
+  private static final int DIGITOS = 16;
+  private static final int LONGITUD_CON_SEPARADORES = 19;
+  private static final int TAMANO_GRUPO = 4;
+
+  private boolean luhn;
 
   @Override
   public void initialize(CreditCardNumber creditCardNumber) {
+    luhn = creditCardNumber.luhn();
   }
 
   @Override
@@ -17,11 +28,40 @@ public class CreditCardNumberValidator implements
     if (creditCardField == null) {
       return true; // Permitir valores null, otras anotaciones controlan esto
     }
-    boolean valid16Digits = creditCardField.matches("[0-9]+")
-        && creditCardField.length() == 16;
-    boolean valid16WithSpaces = creditCardField.matches("([0-9]{4} ){3}[0-9]{4}");
-    boolean valid16WithDashes = creditCardField.matches("([0-9]{4}-){3}[0-9]{4}");
-    return valid16Digits || valid16WithSpaces || valid16WithDashes;
+    int longitud = creditCardField.length();
+    if (longitud != DIGITOS && longitud != LONGITUD_CON_SEPARADORES) {
+      return false;
+    }
+    boolean conSeparadores = longitud == LONGITUD_CON_SEPARADORES;
+    char separador = conSeparadores ? creditCardField.charAt(TAMANO_GRUPO) : 0;
+    if (conSeparadores && separador != ' ' && separador != '-') {
+      return false;
+    }
+    // Suma de Luhn: desde la derecha, se dobla uno de cada dos dígitos (restando 9 si pasa de 9)
+    int suma = 0;
+    int digito = 0;
+    for (int i = longitud - 1; i >= 0; i--) {
+      char c = creditCardField.charAt(i);
+      // En el formato con separadores, las posiciones 4, 9 y 14 son el separador
+      if (conSeparadores && i % (TAMANO_GRUPO + 1) == TAMANO_GRUPO) {
+        if (c != separador) {
+          return false;
+        }
+        continue;
+      }
+      if (c < '0' || c > '9') {
+        return false;
+      }
+      int valor = c - '0';
+      if (digito++ % 2 == 1) {
+        valor *= 2;
+        if (valor > 9) {
+          valor -= 9;
+        }
+      }
+      suma += valor;
+    }
+    return !luhn || suma % 10 == 0;
   }
 
-}
\ No newline at end of file
+}
@@ -1,11 +1,21 @@
 package es.carlosgs.tarjetas.titulares.controllers;
 
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaPageResponseDto;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadRequestException;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasService;
+import es.carlosgs.tarjetas.titulares.dto.TitularPageResponseDto;
 import es.carlosgs.tarjetas.titulares.dto.TitularRequestDto;
-import es.carlosgs.tarjetas.titulares.models.Titular;
+import es.carlosgs.tarjetas.titulares.dto.TitularResponseDto;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularBadRequestException;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularNotFoundException;
+import es.carlosgs.tarjetas.titulares.mappers.TitularesMapper;
 import es.carlosgs.tarjetas.titulares.services.TitularesService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -15,7 +25,6 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -24,30 +33,77 @@ import java.util.Map;
 @RequestMapping("api/${api.version}/titulares") // Es la ruta del controlador
 public class TitularesRestController {
     private final TitularesService titularesService;
+    // Las respuestas son DTO sin la lista de tarjetas del titular
+    private final TitularesMapper titularesMapper;
+    // Para las tarjetas de un titular
+    private final TarjetasService tarjetasService;
 
+    /**
+     * Obtiene los titulares paginados
+     *
+     * @param nombre   Subcadena del nombre, opcional
+     * @param pageable page, size (como mucho spring.data.web.pageable.max-page-size) y sort (id, nombre o createdAt)
+     * @return Página de titulares con el total de elementos y páginas
+     * @throws TitularBadRequestException si no se puede ordenar por esa propiedad (400)
+     */
     @GetMapping()
-    public ResponseEntity<List<Titular>> getAll(@RequestParam(required = false) String nombre) {
-        log.info("Buscando todos los titulares con nombre: " + nombre);
-        return ResponseEntity.ok(titularesService.findAll(nombre));
+    public ResponseEntity<PagedModel<TitularResponseDto>> getAll(@RequestParam(required = false) String nombre,
+                                                                 @PageableDefault(sort = "id") Pageable pageable) {
+        log.info("Buscando todos los titulares con nombre: {} en la página: {}", nombre, pageable);
+        return ResponseEntity.ok(new PagedModel<>(
+                titularesService.findAll(nombre, pageable).map(titularesMapper::toTitularResponseDto)));
+    }
+
+    /**
+     * Obtiene los titulares paginados por clave (keyset), sin recuento y con el mismo coste en cualquier página
+     *
+     * @param cursor Token de continuación devuelto en la página anterior, vacío para la primera
+     * @param size   Tamaño de página, limitado a un máximo
+     * @return Página de titulares con el cursor de la siguiente
+     * @throws TitularBadRequestException si el cursor o el tamaño no son correctos (400)
+     */
+    @GetMapping("/seek")
+    public ResponseEntity<TitularPageResponseDto> getAllByCursor(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer size) {
+        log.info("Buscando titulares por cursor={}, size={}", cursor, size);
+        return ResponseEntity.ok(titularesService.findAllByCursor(cursor, size));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Titular> getById(@PathVariable Long id) {
+    public ResponseEntity<TitularResponseDto> getById(@PathVariable Long id) {
         log.info("Buscando titular por id={}", id);
-        return ResponseEntity.ok(titularesService.findById(id));
+        return ResponseEntity.ok(titularesMapper.toTitularResponseDto(titularesService.findById(id)));
+    }
+
+    /**
+     * Obtiene las tarjetas de un titular paginadas por clave (keyset)
+     *
+     * @param id     del titular
+     * @param cursor Token de continuación devuelto en la página anterior, vacío para la primera
+     * @param size   Tamaño de página, limitado a un máximo
+     * @return Página de tarjetas con el cursor de la siguiente
+     * @throws TitularNotFoundException si no existe el titular (404)
+     * @throws TarjetaBadRequestException si el cursor o el tamaño no son correctos (400)
+     */
+    @GetMapping("/{id}/tarjetas")
+    public ResponseEntity<TarjetaPageResponseDto> getTarjetas(@PathVariable Long id,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size) {
+        log.info("Buscando tarjetas del titular id={}, cursor={}, size={}", id, cursor, size);
+        return ResponseEntity.ok(tarjetasService.findAllByTitularId(id, cursor, size));
     }
 
     @PostMapping()
-    public ResponseEntity<Titular> create(@Valid @RequestBody TitularRequestDto titularRequestDto) {
+    public ResponseEntity<TitularResponseDto> create(@Valid @RequestBody TitularRequestDto titularRequestDto) {
         log.info("Creando titular : {}", titularRequestDto);
         var saved = titularesService.save(titularRequestDto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        return ResponseEntity.status(HttpStatus.CREATED).body(titularesMapper.toTitularResponseDto(saved));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Titular> update(@PathVariable Long id, @Valid @RequestBody TitularRequestDto titularRequestDto) {
+    public ResponseEntity<TitularResponseDto> update(@PathVariable Long id, @Valid @RequestBody TitularRequestDto titularRequestDto) {
         log.info("Actualizando titular id={} con titular={}", id, titularRequestDto);
-        return ResponseEntity.ok(titularesService.update(id, titularRequestDto));
+        return ResponseEntity.ok(titularesMapper.toTitularResponseDto(titularesService.update(id, titularRequestDto)));
     }
 
     @DeleteMapping("/{id}")
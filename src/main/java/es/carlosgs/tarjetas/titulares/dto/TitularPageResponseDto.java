@@ -0,0 +1,23 @@
+package es.carlosgs.tarjetas.titulares.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de titulares obtenida por clave (keyset)
+ * nextCursor es un token opaco que se envía en la siguiente petición para continuar,
+ * si es null no hay más páginas
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TitularPageResponseDto {
+    private List<TitularResponseDto> content;
+    private int size;
+    private String nextCursor;
+}
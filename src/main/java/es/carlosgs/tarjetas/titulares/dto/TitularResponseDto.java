@@ -0,0 +1,23 @@
+package es.carlosgs.tarjetas.titulares.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Titular sin sus tarjetas: se piden paginadas en /titulares/{id}/tarjetas
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TitularResponseDto {
+    private Long id;
+    private String nombre;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Boolean isDeleted;
+}
@@ -0,0 +1,8 @@
+package es.carlosgs.tarjetas.titulares.events;
+
+/**
+ * Un titular ha cambiado de nombre
+ * Lo publica TitularesServiceImpl al actualizarlo; las tarjetas en caché llevan el nombre anterior
+ */
+public record TitularRenombradoEvent(Long titularId, String nombreAnterior, String nombre) {
+}
@@ -0,0 +1,16 @@
+package es.carlosgs.tarjetas.titulares.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción de petición incorrecta en titulares
+ * Status 400
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class TitularBadRequestException extends TitularException {
+
+    public TitularBadRequestException(String message) {
+        super(message);
+    }
+}
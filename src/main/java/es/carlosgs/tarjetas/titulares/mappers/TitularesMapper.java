@@ -1,26 +1,50 @@
 package es.carlosgs.tarjetas.titulares.mappers;
 
 import es.carlosgs.tarjetas.titulares.dto.TitularRequestDto;
+import es.carlosgs.tarjetas.titulares.dto.TitularResponseDto;
 import es.carlosgs.tarjetas.titulares.models.Titular;
+import es.carlosgs.tarjetas.titulares.search.Trigramas;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class TitularesMapper {
     public Titular toTitular(TitularRequestDto dto) {
         return Titular.builder()
                 .id(null)
                 .nombre(dto.getNombre())
+                .nombreNormalizado(Trigramas.normalizar(dto.getNombre()))
                 .build();
     }
 
     public Titular toTitular(TitularRequestDto dto, Titular titular) {
+        String nombre = dto.getNombre() != null ? dto.getNombre() : titular.getNombre();
         return Titular.builder()
                 .id(titular.getId())
-                .nombre(dto.getNombre() != null ? dto.getNombre() : titular.getNombre())
+                .nombre(nombre)
+                .nombreNormalizado(Trigramas.normalizar(nombre))
                 .createdAt(titular.getCreatedAt())
                 // no tenemos en cuenta este campo porque la actualización lo cambiará automáticamente
                 //.updatedAt(LocalDateTime.now())
                 .isDeleted(dto.getIsDeleted()  != null ? dto.getIsDeleted() : titular.getIsDeleted())
                 .build();
     }
+
+    // Sin la lista de tarjetas, así no se carga ni se serializa
+    public TitularResponseDto toTitularResponseDto(Titular titular) {
+        return TitularResponseDto.builder()
+                .id(titular.getId())
+                .nombre(titular.getNombre())
+                .createdAt(titular.getCreatedAt())
+                .updatedAt(titular.getUpdatedAt())
+                .isDeleted(titular.getIsDeleted())
+                .build();
+    }
+
+    public List<TitularResponseDto> toResponseDtoList(List<Titular> titulares) {
+        return titulares.stream()
+                .map(this::toTitularResponseDto)
+                .toList();
+    }
 }
@@ -1,6 +1,6 @@
 package es.carlosgs.tarjetas.titulares.models;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
 import jakarta.persistence.*;
 import lombok.*;
@@ -17,13 +17,24 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor // JPA necesita un constructor vacío
 @Entity
-@Table(name = "TITULARES")
+@Table(name = "TITULARES", indexes = {
+        // Único: el alta de tarjetas resuelve el titular por su nombre normalizado y no puede haber dos
+        @Index(name = "idx_titulares_nombre_normalizado", columnList = "nombre_normalizado", unique = true),
+        // Titulares borrados o no (findByIsDeleted)
+        @Index(name = "idx_titulares_is_deleted", columnList = "is_deleted")
+})
 public class Titular {
     @Id // Indicamos que es el ID de la tabla
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con reserva de bloques de ids, igual que en las tarjetas
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "titulares_seq")
+    @SequenceGenerator(name = "titulares_seq", sequenceName = "TITULARES_SEQ", allocationSize = 50)
     private  Long id;
     @Column(unique = true, nullable = false,  length = 20)
     private String nombre;
+    // Nombre en minúsculas para las búsquedas, lo calcula el mapper
+    // Único: "Jose" y "JOSE" no pueden ser dos titulares distintos
+    @Column(nullable = false, length = 20)
+    private String nombreNormalizado;
 
     @Builder.Default
     @Column(updatable = false, nullable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
@@ -36,8 +47,11 @@ public class Titular {
     @Builder.Default
     private Boolean isDeleted = false;
 
-    @JsonIgnoreProperties("titular")
-    @OneToMany(mappedBy = "titular")
+    // Perezosa y fuera del JSON y del toString: un titular puede tener miles de tarjetas,
+    // se piden paginadas en /titulares/{id}/tarjetas
+    @JsonIgnore
+    @ToString.Exclude
+    @OneToMany(mappedBy = "titular", fetch = FetchType.LAZY)
     private List<Tarjeta> tarjetas;
 
 }
@@ -0,0 +1,29 @@
+package es.carlosgs.tarjetas.titulares.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entrada del índice de trigramas de nombres de titulares
+ * Cada titular tiene una fila por cada trigrama distinto de su nombre normalizado
+ */
+@Builder
+@ToString
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor // JPA necesita un constructor vacío
+@Entity
+@Table(name = "TITULARES_TRIGRAMAS", indexes = {
+        @Index(name = "idx_titulares_trigramas_trigrama", columnList = "trigrama, titular_id"),
+        @Index(name = "idx_titulares_trigramas_titular", columnList = "titular_id")
+})
+public class TitularTrigrama {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, length = 3)
+    private String trigrama;
+    @Column(name = "titular_id", nullable = false)
+    private Long titularId;
+}
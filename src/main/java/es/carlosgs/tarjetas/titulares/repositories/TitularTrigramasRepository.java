@@ -0,0 +1,24 @@
+package es.carlosgs.tarjetas.titulares.repositories;
+
+import es.carlosgs.tarjetas.titulares.models.TitularTrigrama;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TitularTrigramasRepository extends JpaRepository<TitularTrigrama, Long> {
+    // Subconsulta con los ids de los titulares que tienen todos los trigramas buscados (candidatos a contener la subcadena)
+    // Va dentro de las consultas de titulares y de tarjetas, así los candidatos nunca se cargan en memoria
+    // por muchos titulares que compartan un trigrama; necesita los parámetros trigramas y totalTrigramas
+    String TITULAR_IDS_CON_TRIGRAMAS = "SELECT tg.titularId FROM TitularTrigrama tg WHERE tg.trigrama IN :trigramas "
+            + "GROUP BY tg.titularId HAVING COUNT(DISTINCT tg.trigrama) = :totalTrigramas";
+    // La misma subconsulta en SQL, para las consultas nativas (lecturas reactivas, ver TarjetasReactiveRepository)
+    String TITULAR_IDS_CON_TRIGRAMAS_SQL = "SELECT tg.titular_id FROM TITULARES_TRIGRAMAS tg WHERE tg.trigrama IN (:trigramas) "
+            + "GROUP BY tg.titular_id HAVING COUNT(DISTINCT tg.trigrama) = :totalTrigramas";
+
+    // Borra las entradas de un titular, para reindexarlo o al borrarlo
+    @Modifying
+    @Query("DELETE FROM TitularTrigrama tg WHERE tg.titularId = :titularId")
+    void deleteByTitularId(Long titularId);
+}
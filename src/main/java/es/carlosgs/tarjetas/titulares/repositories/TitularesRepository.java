@@ -1,11 +1,15 @@
 package es.carlosgs.tarjetas.titulares.repositories;
 
 import es.carlosgs.tarjetas.titulares.models.Titular;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +18,14 @@ public interface TitularesRepository extends JpaRepository<Titular,Long> {
     // Encontrar por nombre exacto
     Optional<Titular> findByNombreEqualsIgnoreCase(String nombre);
 
+    // Encontrar por nombre normalizado exacto, con el índice único de la columna
+    Optional<Titular> findByNombreNormalizado(String nombreNormalizado);
+
+    // Si el nombre normalizado ya es de algún titular (alta) o de otro titular (actualización)
+    boolean existsByNombreNormalizado(String nombreNormalizado);
+
+    boolean existsByNombreNormalizadoAndIdNot(String nombreNormalizado, Long id);
+
     // Encontrar por nombre exacto y no borrado
     Optional<Titular> findByNombreEqualsIgnoreCaseAndIsDeletedFalse(String nombre);
 
@@ -23,6 +35,22 @@ public interface TitularesRepository extends JpaRepository<Titular,Long> {
     // Tirulares activos
     List<Titular> findByNombreContainingIgnoreCaseAndIsDeletedFalse(String nombre);
 
+    // Búsqueda por subcadena sobre el nombre normalizado, paginada y en una sola consulta:
+    // los candidatos del índice de trigramas se confirman contra el nombre normalizado por clave primaria
+    String WHERE_TRIGRAMAS = "WHERE t.id IN (" + TitularTrigramasRepository.TITULAR_IDS_CON_TRIGRAMAS + ") "
+            + "AND t.nombreNormalizado LIKE %:nombreNormalizado%";
+
+    @Query(value = "SELECT t FROM Titular t " + WHERE_TRIGRAMAS,
+            countQuery = "SELECT COUNT(t) FROM Titular t " + WHERE_TRIGRAMAS)
+    Page<Titular> findByTrigramasAndNombreNormalizadoContaining(Collection<String> trigramas, long totalTrigramas,
+                                                                String nombreNormalizado, Pageable pageable);
+
+    // Para búsquedas más cortas que un trigrama no hay índice que sirva y se recorre la columna normalizada
+    Page<Titular> findByNombreNormalizadoContaining(String nombreNormalizado, Pageable pageable);
+
+    // Búsqueda por clave (keyset): ordenados por id y a partir del último id devuelto, por la clave primaria
+    List<Titular> findByIdGreaterThanOrderById(Long id, Limit limit);
+
     // Si están borrados
     List<Titular> findByIsDeleted(Boolean isDeleted);
 
@@ -33,7 +61,8 @@ public interface TitularesRepository extends JpaRepository<Titular,Long> {
     void updateIsDeletedToTrueById(Long id);
 
     // Obtiene si existe una tarjeta con el id del titular
-    @Query("SELECT CASE WHEN COUNT(t) > 0 THEN true ELSE false END FROM Tarjeta t WHERE t.titular.id = :id")
+    // Nativa para contar también las tarjetas con borrado lógico pendientes de purgar, que siguen en la tabla
+    @Query(value = "SELECT EXISTS(SELECT 1 FROM TARJETAS WHERE titular_id = :id)", nativeQuery = true)
     Boolean existsTarjetaById(Long id);
 }
 
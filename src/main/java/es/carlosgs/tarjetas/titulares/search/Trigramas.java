@@ -0,0 +1,35 @@
+package es.carlosgs.tarjetas.titulares.search;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Utilidades para la búsqueda de titulares por subcadena
+ * Un nombre se normaliza (minúsculas y sin espacios extremos) y se trocea en trigramas,
+ * que se guardan indexados para encontrar los titulares que contienen una subcadena
+ * sin recorrer toda la tabla
+ */
+public final class Trigramas {
+    // Longitud de cada trozo del índice, las búsquedas más cortas no se pueden resolver con él
+    public static final int LONGITUD = 3;
+
+    private Trigramas() {
+    }
+
+    public static String normalizar(String nombre) {
+        return nombre == null ? null : nombre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Trigramas distintos del texto ya normalizado, vacío si es más corto que un trigrama
+    public static Set<String> trigramas(String normalizado) {
+        Set<String> trigramas = new LinkedHashSet<>();
+        if (normalizado == null) {
+            return trigramas;
+        }
+        for (int i = 0; i + LONGITUD <= normalizado.length(); i++) {
+            trigramas.add(normalizado.substring(i, i + LONGITUD));
+        }
+        return trigramas;
+    }
+}
@@ -0,0 +1,28 @@
+package es.carlosgs.tarjetas.titulares.services;
+
+import es.carlosgs.tarjetas.config.CacheRefresher;
+import es.carlosgs.tarjetas.titulares.repositories.TitularesRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refresco anticipado de la caché de titulares por id
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class TitularesCacheRefresher implements CacheRefresher {
+    private final TitularesRepository titularesRepository;
+
+    @Override
+    public String cacheName() {
+        return "titulares";
+    }
+
+    @Override
+    public Object reload(Object key) {
+        log.debug("Refrescando titular {} en caché", key);
+        return titularesRepository.findById((Long) key).orElse(null);
+    }
+}
@@ -1,12 +1,17 @@
 package es.carlosgs.tarjetas.titulares.services;
 
+import es.carlosgs.tarjetas.titulares.dto.TitularPageResponseDto;
 import es.carlosgs.tarjetas.titulares.dto.TitularRequestDto;
 import es.carlosgs.tarjetas.titulares.models.Titular;
-
-import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 public interface TitularesService {
-    List<Titular> findAll(String nombre);
+    // Página de titulares, con el tamaño acotado y ordenados solo por las propiedades permitidas
+    Page<Titular> findAll(String nombre, Pageable pageable);
+
+    // Página de titulares por clave (keyset), cursor es el de la página anterior o null para la primera
+    TitularPageResponseDto findAllByCursor(String cursor, Integer size);
 
     Titular findByNombre(String nombre);
 
@@ -1,73 +1,209 @@
 package es.carlosgs.tarjetas.titulares.services;
 
+import es.carlosgs.tarjetas.paginacion.PaginasPorClave;
+import es.carlosgs.tarjetas.titulares.dto.TitularPageResponseDto;
 import es.carlosgs.tarjetas.titulares.dto.TitularRequestDto;
+import es.carlosgs.tarjetas.titulares.events.TitularRenombradoEvent;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularBadRequestException;
 import es.carlosgs.tarjetas.titulares.exceptions.TitularConflictException;
 import es.carlosgs.tarjetas.titulares.exceptions.TitularNotFoundException;
 import es.carlosgs.tarjetas.titulares.mappers.TitularesMapper;
 import es.carlosgs.tarjetas.titulares.models.Titular;
+import es.carlosgs.tarjetas.titulares.models.TitularTrigrama;
+import es.carlosgs.tarjetas.titulares.repositories.TitularTrigramasRepository;
 import es.carlosgs.tarjetas.titulares.repositories.TitularesRepository;
+import es.carlosgs.tarjetas.titulares.search.Trigramas;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
+/**
+ * Servicio de titulares
+ * Hay dos cachés: titulares (por id) y titulares-nombre (por nombre normalizado),
+ * que es la que usa el alta de tarjetas para resolver el titular sin ir a la base de datos
+ * El nombre anterior de un titular renombrado o borrado se invalida al confirmar la transacción,
+ * para que una lectura concurrente no vuelva a cachear la fila antigua
+ * Al renombrarlo se publica TitularRenombradoEvent: las tarjetas cacheadas llevan el nombre del titular
+ */
 @Slf4j
-@RequiredArgsConstructor
 @Service
 @CacheConfig(cacheNames = {"titulares"})
 public class TitularesServiceImpl implements TitularesService {
+    public static final String TITULARES_NOMBRE = "titulares-nombre";
+
+    // Propiedades por las que se puede ordenar la página (las otras no tienen índice o no existen)
+    static final Set<String> SORT_PROPERTIES = Set.of("id", "nombre", "createdAt");
+
     private final TitularesRepository titularesRepository;
+    private final TitularTrigramasRepository titularTrigramasRepository;
     private final TitularesMapper titularesMapper;
+    private final Cache titularesNombre;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TitularesServiceImpl(TitularesRepository titularesRepository,
+                                TitularTrigramasRepository titularTrigramasRepository,
+                                TitularesMapper titularesMapper,
+                                CacheManager cacheManager,
+                                ApplicationEventPublisher eventPublisher) {
+        this.titularesRepository = titularesRepository;
+        this.titularTrigramasRepository = titularTrigramasRepository;
+        this.titularesMapper = titularesMapper;
+        this.eventPublisher = eventPublisher;
+        // Los evict se aplazan hasta el commit si hay transacción
+        this.titularesNombre = new TransactionAwareCacheDecorator(
+                Objects.requireNonNull(cacheManager.getCache(TITULARES_NOMBRE)));
+    }
 
+    // El tamaño máximo lo acota Spring (spring.data.web.pageable.max-page-size)
     @Override
-    public List<Titular> findAll(String nombre) {
-        log.info("Buscando titulares por nombre: {}", nombre);
+    public Page<Titular> findAll(String nombre, Pageable pageable) {
+        log.info("Buscando titulares por nombre: {} en la página: {}", nombre, pageable);
+        pageable.getSort().forEach(orden -> {
+            if (!SORT_PROPERTIES.contains(orden.getProperty())) {
+                throw new TitularBadRequestException("No se puede ordenar por " + orden.getProperty()
+                        + ", solo por " + SORT_PROPERTIES);
+            }
+        });
         if (nombre == null || nombre.isEmpty()) {
-            return titularesRepository.findAll();
-        } else {
-            return titularesRepository.findByNombreContainingIgnoreCase(nombre);
+            return titularesRepository.findAll(pageable);
         }
+        String normalizado = Trigramas.normalizar(nombre);
+        Set<String> trigramas = Trigramas.trigramas(normalizado);
+        if (trigramas.isEmpty()) {
+            return titularesRepository.findByNombreNormalizadoContaining(normalizado, pageable);
+        }
+        return titularesRepository.findByTrigramasAndNombreNormalizadoContaining(trigramas, trigramas.size(),
+                normalizado, pageable);
+    }
+
+    // Por clave: cualquier página cuesta lo mismo que la primera y no hay consulta de recuento
+    @Override
+    public TitularPageResponseDto findAllByCursor(String cursor, Integer size) {
+        long lastId = decodeCursor(cursor);
+        int pageSize = pageSize(size);
+        log.info("Buscando titulares desde id: {}", lastId);
+        // Pedimos un elemento más de los necesarios para saber si hay página siguiente
+        var titulares = titularesRepository.findByIdGreaterThanOrderById(lastId, Limit.of(pageSize + 1));
+        boolean hasNext = titulares.size() > pageSize;
+        var content = hasNext ? titulares.subList(0, pageSize) : titulares;
+        return TitularPageResponseDto.builder()
+                .content(titularesMapper.toResponseDtoList(content))
+                .size(content.size())
+                .nextCursor(hasNext ? PaginasPorClave.encodeCursor(content.getLast().getId()) : null)
+                .build();
+    }
+
+    private int pageSize(Integer size) {
+        return PaginasPorClave.pageSize(size, TitularBadRequestException::new);
+    }
+
+    private long decodeCursor(String cursor) {
+        return PaginasPorClave.decodeCursor(cursor, TitularBadRequestException::new);
     }
 
+    // Cacheado por nombre normalizado, así "Jose", "jose" y " JOSE " son la misma entrada
     @Override
+    @Cacheable(cacheNames = TITULARES_NOMBRE, sync = true,
+            key = "T(es.carlosgs.tarjetas.titulares.search.Trigramas).normalizar(#nombre)")
     public Titular findByNombre(String nombre) {
         log.info("Buscando titulares por nombre: {}", nombre);
-        return titularesRepository.findByNombreEqualsIgnoreCase(nombre)
+        return titularesRepository.findByNombreNormalizado(Trigramas.normalizar(nombre))
                 .orElseThrow(() -> new TitularNotFoundException(nombre));
     }
 
 
+    // sync: con varios fallos concurrentes del mismo id solo uno consulta la base de datos y el resto espera
     @Override
-    @Cacheable
+    @Cacheable(sync = true)
     public Titular findById(Long id) {
         log.info("Buscando titular por id: {}", id);
         return titularesRepository.findById(id).orElseThrow(() -> new TitularNotFoundException(id));
     }
 
     @Override
-    @CachePut
+    @Caching(put = {
+            @CachePut(key = "#result.id"),
+            @CachePut(cacheNames = TITULARES_NOMBRE, key = "#result.nombreNormalizado")
+    })
+    @Transactional // El titular y sus trigramas se guardan juntos
     public Titular save(TitularRequestDto titularRequestDto) {
         log.info("Guardando titular: {}", titularRequestDto);
-        return titularesRepository.save(titularesMapper.toTitular(titularRequestDto));
+        Titular nuevo = titularesMapper.toTitular(titularRequestDto);
+        if (titularesRepository.existsByNombreNormalizado(nuevo.getNombreNormalizado())) {
+            throw nombreOcupado(nuevo);
+        }
+        Titular titular = titularesRepository.save(nuevo);
+        indexarNombre(titular);
+        return titular;
     }
 
     @Override
-    @CachePut
+    @Caching(put = {
+            @CachePut(key = "#result.id"),
+            @CachePut(cacheNames = TITULARES_NOMBRE, key = "#result.nombreNormalizado")
+    })
+    @Transactional // El titular y sus trigramas se actualizan juntos
     public Titular update(Long id, TitularRequestDto titularRequestDto) {
         log.info("Actualizando titular: {}", titularRequestDto);
         Titular titularActual = findById(id);
+        // Se guardan antes de actualizar: save devuelve la misma entidad gestionada, ya con el nombre nuevo
+        String nombreAnterior = titularActual.getNombre();
+        String nombreNormalizadoAnterior = titularActual.getNombreNormalizado();
         // Actualizamos los datos
-        return titularesRepository.save(titularesMapper.toTitular(titularRequestDto, titularActual));
+        Titular actualizado = titularesMapper.toTitular(titularRequestDto, titularActual);
+        if (titularesRepository.existsByNombreNormalizadoAndIdNot(actualizado.getNombreNormalizado(), id)) {
+            throw nombreOcupado(actualizado);
+        }
+        Titular titular = titularesRepository.save(actualizado);
+        // Solo hay que reindexar si ha cambiado el nombre normalizado
+        if (!titular.getNombreNormalizado().equals(nombreNormalizadoAnterior)) {
+            titularTrigramasRepository.deleteByTitularId(id);
+            indexarNombre(titular);
+            // El nombre anterior ya no resuelve a este titular
+            titularesNombre.evict(nombreNormalizadoAnterior);
+        }
+        // Las tarjetas en caché llevan el nombre tal cual (también con otras mayúsculas),
+        // se invalidan al confirmar la transacción (TitularRenombradoListener)
+        if (!titular.getNombre().equals(nombreAnterior)) {
+            eventPublisher.publishEvent(new TitularRenombradoEvent(id, nombreAnterior, titular.getNombre()));
+        }
+        return titular;
+    }
+
+    // Dos titulares no pueden tener el mismo nombre normalizado: findByNombre no sabría cuál devolver
+    private TitularConflictException nombreOcupado(Titular titular) {
+        String mensaje = "Ya existe un titular con el nombre: " + titular.getNombre();
+        log.warn(mensaje);
+        return new TitularConflictException(mensaje);
+    }
+
+    // Guarda una entrada del índice por cada trigrama del nombre normalizado
+    private void indexarNombre(Titular titular) {
+        titularTrigramasRepository.saveAll(Trigramas.trigramas(titular.getNombreNormalizado()).stream()
+                .map(trigrama -> TitularTrigrama.builder()
+                        .trigrama(trigrama)
+                        .titularId(titular.getId())
+                        .build())
+                .toList());
     }
 
     @Override
-    @CacheEvict
+    @CacheEvict(key = "#id")
     @Transactional // Para que se haga todo o nada y no se quede a medias (por el update)
     public void deleteById(Long id) {
         log.info("Borrando titular por id: {}", id);
@@ -82,7 +218,9 @@ public class TitularesServiceImpl implements TitularesService {
             log.warn(mensaje);
             throw new TitularConflictException(mensaje);
         } else {
+            titularTrigramasRepository.deleteByTitularId(id);
             titularesRepository.deleteById(id);
+            titularesNombre.evict(titular.getNombreNormalizado());
         }
 
     }
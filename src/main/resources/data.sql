@@ -8,7 +8,7 @@ create table TARJETAS (
     cvc varchar(3) not null,
     fecha_caducidad date not null,
     titular varchar(50) not null,
-    saldo float(53) not null,
+    saldo decimal(19, 2) not null,
     is_deleted boolean default false,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP not null,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP not null,
@@ -16,9 +16,23 @@ create table TARJETAS (
 );
 */
 -- Filas de ejemplo
-INSERT INTO TITULARES (nombre)
-    VALUES ('Carlos'), ('Jose'), ('María');
+INSERT INTO TITULARES (id, nombre, nombre_normalizado)
+    VALUES (1, 'Carlos', 'carlos'), (2, 'Jose', 'jose'), (3, 'María', 'maría');
 
-INSERT INTO TARJETAS (numero, cvc, fecha_caducidad, titular_id, saldo, uuid)
-    VALUES ('1234-5678-1234-5678', '555', '2025-12-31', 2, 100.0, UUID()),
-         ('4321-5678-1234-5678', '234', '2025-12-31', 3, 200.0, UUID());
+-- Índice de trigramas de los nombres normalizados para las búsquedas por subcadena
+INSERT INTO TITULARES_TRIGRAMAS (trigrama, titular_id)
+    VALUES ('car', 1), ('arl', 1), ('rlo', 1), ('los', 1),
+         ('jos', 2), ('ose', 2),
+         ('mar', 3), ('arí', 3), ('ría', 3);
+
+-- La huella es el HMAC-SHA256 en hexadecimal de los dígitos del número (NumerosTarjeta.huella)
+-- con el secreto de desarrollo de application.properties: con otro secreto estas tarjetas no se encuentran por número
+INSERT INTO TARJETAS (id, numero, huella, cvc, fecha_caducidad, titular_id, saldo, uuid, version)
+    VALUES (1, '1234-5678-1234-5678', '25d6a9a4b288bed7306419388675d7243ffb4db5a6c959facd953ea6e39a3152',
+            '555', '2025-12-31', 2, 100.00, UUID(), 0),
+         (2, '4321-5678-1234-5678', '6ae73bb615ab13106eaed830e0c2304aacc75d209cbf72ab3887a529be736354',
+            '234', '2025-12-31', 3, 200.00, UUID(), 0);
+
+-- Los ids se generan con secuencias, las ponemos detrás de las filas de ejemplo
+ALTER SEQUENCE TITULARES_SEQ RESTART WITH 4;
+ALTER SEQUENCE TARJETAS_SEQ RESTART WITH 3;
@@ -0,0 +1,67 @@
+package es.carlosgs.tarjetas.paginacion;
+
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadRequestException;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularBadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaginasPorClaveTest {
+
+    private static String base64(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void pageSize_defaultsAndCapsSize() {
+        // Act & Assert
+        assertAll(
+                () -> assertEquals(PaginasPorClave.DEFAULT_PAGE_SIZE, PaginasPorClave.pageSize(null, TarjetaBadRequestException::new)),
+                () -> assertEquals(1, PaginasPorClave.pageSize(1, TarjetaBadRequestException::new)),
+                () -> assertEquals(PaginasPorClave.MAX_PAGE_SIZE, PaginasPorClave.pageSize(100_000, TarjetaBadRequestException::new))
+        );
+    }
+
+    @Test
+    void pageSize_throwsCallerException_WhenSizeLessThanOne() {
+        // Act & Assert
+        // Cada módulo recibe su propia excepción
+        assertAll(
+                () -> assertThrows(TarjetaBadRequestException.class,
+                        () -> PaginasPorClave.pageSize(0, TarjetaBadRequestException::new)),
+                () -> assertThrows(TitularBadRequestException.class,
+                        () -> PaginasPorClave.pageSize(-5, TitularBadRequestException::new))
+        );
+    }
+
+    @Test
+    void decodeCursor_returnsEncodedId() {
+        // Act
+        String cursor = PaginasPorClave.encodeCursor(12345L);
+
+        // Assert
+        assertAll(
+                () -> assertEquals(12345L, PaginasPorClave.decodeCursor(cursor, TarjetaBadRequestException::new)),
+                () -> assertFalse(cursor.contains("=")),
+                () -> assertEquals(0L, PaginasPorClave.decodeCursor(null, TarjetaBadRequestException::new)),
+                () -> assertEquals(0L, PaginasPorClave.decodeCursor("", TarjetaBadRequestException::new))
+        );
+    }
+
+    @Test
+    void decodeCursor_throwsCallerException_WhenCursorIsNotValid() {
+        // Act & Assert
+        // No es Base64, no empieza por "id:" o no lleva un número
+        assertAll(
+                () -> assertThrows(TitularBadRequestException.class,
+                        () -> PaginasPorClave.decodeCursor("no es base64!", TitularBadRequestException::new)),
+                () -> assertThrows(TitularBadRequestException.class,
+                        () -> PaginasPorClave.decodeCursor(base64("uuid:7"), TitularBadRequestException::new)),
+                () -> assertThrows(TarjetaBadRequestException.class,
+                        () -> PaginasPorClave.decodeCursor(base64("id:siete"), TarjetaBadRequestException::new))
+        );
+    }
+}
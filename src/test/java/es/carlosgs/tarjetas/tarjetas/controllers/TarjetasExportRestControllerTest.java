@@ -0,0 +1,40 @@
+package es.carlosgs.tarjetas.tarjetas.controllers;
+
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TarjetasExportRestControllerTest {
+
+  private final String ENDPOINT = "/api/v1/tarjetas/export";
+
+  @Autowired
+  private MockMvcTester mockMvcTester;
+
+  @MockitoBean
+  private TarjetasExportService tarjetasExportService;
+
+  @Test
+  void export_ShouldReturnBadRequest_WhenUnknownFormat() {
+    // Act
+    var result = mockMvcTester.get()
+        .uri(ENDPOINT + "?format=xml")
+        .exchange();
+
+    // Assert
+    assertThat(result).hasStatus(HttpStatus.BAD_REQUEST);
+
+    // Verify
+    verifyNoInteractions(tarjetasExportService);
+  }
+}
@@ -0,0 +1,108 @@
+package es.carlosgs.tarjetas.tarjetas.controllers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Actualizaciones concurrentes de la tarjeta 1 de data.sql (saldo 100.00) con el servicio y la base de datos reales
+// Sin If-Match ninguna se aplica; con el mismo ETag solo se aplica la primera
+@SpringBootTest
+@AutoConfigureMockMvc
+class TarjetasRestControllerIfMatchTest {
+  private static final int HILOS = 8;
+  private final String ENDPOINT = "/api/v1/tarjetas/1";
+
+  @Autowired
+  private MockMvcTester mockMvcTester;
+
+  private String etag() {
+    return mockMvcTester.get().uri(ENDPOINT).exchange().getResponse().getHeader("ETag");
+  }
+
+  private MvcTestResult put(String saldo, String ifMatch) {
+    var peticion = mockMvcTester.put()
+        .uri(ENDPOINT)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"saldo\": " + saldo + "}");
+    if (ifMatch != null) {
+      peticion = peticion.header("If-Match", ifMatch);
+    }
+    return peticion.exchange();
+  }
+
+  // Cada hilo envía su PUT con un saldo distinto, todos a la vez
+  private List<Integer> enParalelo(String ifMatch) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+    CountDownLatch salida = new CountDownLatch(1);
+    List<Future<Integer>> resultados = new ArrayList<>();
+    for (int i = 0; i < HILOS; i++) {
+      String saldo = (i + 1) + "000.00";
+      resultados.add(executor.submit(() -> {
+        salida.await();
+        return put(saldo, ifMatch).getResponse().getStatus();
+      }));
+    }
+    salida.countDown();
+    List<Integer> estados = new ArrayList<>();
+    for (Future<Integer> resultado : resultados) {
+      estados.add(resultado.get(60, TimeUnit.SECONDS));
+    }
+    executor.shutdown();
+    return estados;
+  }
+
+  @AfterEach
+  void tearDown() {
+    // Dejamos la tarjeta con el saldo de data.sql para los demás tests
+    put("100.00", etag());
+  }
+
+  @Test
+  void update_concurrentPutsWithoutIfMatch_areRejected() throws Exception {
+    // Arrange
+    String etag = etag();
+
+    // Act
+    var estados = enParalelo(null);
+
+    // Assert
+    // Todas 428 y la tarjeta sigue en la misma versión y con el mismo saldo
+    assertThat(estados).containsOnly(HttpStatus.PRECONDITION_REQUIRED.value());
+    assertThat(etag()).isEqualTo(etag);
+    assertThat(mockMvcTester.get().uri(ENDPOINT).exchange())
+        .bodyJson().extractingPath("$.saldo").isEqualTo(100.0);
+  }
+
+  @Test
+  void update_putWithWildcardIfMatch_isRejected() {
+    // Act & Assert
+    assertThat(put("5.00", "*")).hasStatus(HttpStatus.PRECONDITION_REQUIRED);
+  }
+
+  @Test
+  void update_concurrentPutsWithSameIfMatch_onlyOneApplied() throws Exception {
+    // Act
+    var estados = enParalelo(etag());
+
+    // Assert
+    // Una gana y el resto recibe 412: ninguna pisa a otra sin saberlo
+    assertThat(estados).filteredOn(estado -> estado == HttpStatus.OK.value()).hasSize(1);
+    assertThat(estados).filteredOn(estado -> estado == HttpStatus.PRECONDITION_FAILED.value()).hasSize(HILOS - 1);
+  }
+}
@@ -1,9 +1,14 @@
 package es.carlosgs.tarjetas.tarjetas.controllers;
 
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaBulkErrorDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaBulkResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaPageResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaUpdateDto;
 import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaNotFoundException;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasImportService;
 import es.carlosgs.tarjetas.tarjetas.services.TarjetasService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +21,7 @@ import org.springframework.test.web.servlet.assertj.MockMvcTester;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -32,7 +38,7 @@ class TarjetasRestControllerTest {
       .cvc("555")
       .fechaCaducidad(LocalDate.of(2025,12,31))
       .titular("Jose")
-      .saldo(100.0)
+      .saldo(Dinero.of("100.0"))
       .build();
 
   private final TarjetaResponseDto tarjetaResponse2 = TarjetaResponseDto.builder()
@@ -41,7 +47,7 @@ class TarjetasRestControllerTest {
       .cvc("555")
       .fechaCaducidad(LocalDate.of(2025,12,31))
       .titular("Juan")
-      .saldo(100.0)
+      .saldo(Dinero.of("100.0"))
       .build();
 
   @Autowired
@@ -50,11 +56,15 @@ class TarjetasRestControllerTest {
   @MockitoBean
   private TarjetasService tarjetasService;
 
+  @MockitoBean
+  private TarjetasImportService tarjetasImportService;
+
   @Test
   void getAll() {
     // Arrange
     var tarjetaResponses = List.of(tarjetaResponse1, tarjetaResponse2);
-    when(tarjetasService.findAll(null, null)).thenReturn(tarjetaResponses);
+    var page = toPage(tarjetaResponses);
+    when(tarjetasService.findAll(null, null, null, null)).thenReturn(page);
 
     // Act. Consultar el endpoint
     var result = mockMvcTester.get()
@@ -66,23 +76,24 @@ class TarjetasRestControllerTest {
     assertThat(result)
         .hasStatusOk()
         .bodyJson().satisfies(json -> {
-          assertThat(json).extractingPath("$.length()").isEqualTo(tarjetaResponses.size());
-          assertThat(json).extractingPath("$[0]")
+          assertThat(json).extractingPath("$.content.length()").isEqualTo(tarjetaResponses.size());
+          assertThat(json).extractingPath("$.content[0]")
               .convertTo(TarjetaResponseDto.class).isEqualTo(tarjetaResponse1);
-          assertThat(json).extractingPath("$[1]")
+          assertThat(json).extractingPath("$.content[1]")
               .convertTo(TarjetaResponseDto.class).isEqualTo(tarjetaResponse2);
         });
 
     // Verify
-    verify(tarjetasService, times(1)).findAll(null, null);
+    verify(tarjetasService, times(1)).findAll(null, null, null, null);
   }
 
   @Test
   void getAllByNumero() {
     // Arrange
     var tarjetaResponses = List.of(tarjetaResponse2);
+    var page = toPage(tarjetaResponses);
     String queryString = "?numero=" + tarjetaResponse2.getNumero();
-    when(tarjetasService.findAll(anyString(), isNull())).thenReturn(tarjetaResponses);
+    when(tarjetasService.findAll(anyString(), isNull(), isNull(), isNull())).thenReturn(page);
 
     // Act
     var result = mockMvcTester.get()
@@ -94,21 +105,22 @@ class TarjetasRestControllerTest {
     assertThat(result)
         .hasStatusOk()
         .bodyJson().satisfies(json -> {
-          assertThat(json).extractingPath("$.length()").isEqualTo(tarjetaResponses.size());
-          assertThat(json).extractingPath("$[0]")
+          assertThat(json).extractingPath("$.content.length()").isEqualTo(tarjetaResponses.size());
+          assertThat(json).extractingPath("$.content[0]")
               .convertTo(TarjetaResponseDto.class).isEqualTo(tarjetaResponse2);
         });
 
     // Verify
-    verify(tarjetasService, times(1)).findAll(anyString(), isNull());
+    verify(tarjetasService, times(1)).findAll(anyString(), isNull(), isNull(), isNull());
   }
 
   @Test
   void getAllByTitular() {
     // Arrange
     var tarjetaResponses = List.of(tarjetaResponse2);
+    var page = toPage(tarjetaResponses);
     String queryString = "?titular=" + tarjetaResponse2.getTitular();
-    when(tarjetasService.findAll(isNull(), anyString())).thenReturn(tarjetaResponses);
+    when(tarjetasService.findAll(isNull(), anyString(), isNull(), isNull())).thenReturn(page);
 
     // Act
     var result = mockMvcTester.get()
@@ -120,22 +132,23 @@ class TarjetasRestControllerTest {
     assertThat(result)
         .hasStatusOk()
         .bodyJson().satisfies(json -> {
-          assertThat(json).extractingPath("$.length()").isEqualTo(tarjetaResponses.size());
-          assertThat(json).extractingPath("$[0]")
+          assertThat(json).extractingPath("$.content.length()").isEqualTo(tarjetaResponses.size());
+          assertThat(json).extractingPath("$.content[0]")
               .convertTo(TarjetaResponseDto.class).isEqualTo(tarjetaResponse2);
         });
 
     // Verify
-    verify(tarjetasService, only()).findAll(isNull(), anyString());
+    verify(tarjetasService, only()).findAll(isNull(), anyString(), isNull(), isNull());
   }
 
   @Test
   void getAllByNumeroAndTitular() {
     // Arrange
     var tarjetaResponses = List.of(tarjetaResponse2);
+    var page = toPage(tarjetaResponses);
     String queryString = "?numero=" + tarjetaResponse2.getNumero() + "&"
         + "titular=" + tarjetaResponse2.getTitular();
-    when(tarjetasService.findAll(anyString(), anyString())).thenReturn(tarjetaResponses);
+    when(tarjetasService.findAll(anyString(), anyString(), isNull(), isNull())).thenReturn(page);
 
     // Act
     var result = mockMvcTester.get()
@@ -147,16 +160,51 @@ class TarjetasRestControllerTest {
     assertThat(result)
         .hasStatusOk()
         .bodyJson().satisfies(json -> {
-          assertThat(json).extractingPath("$.length()").isEqualTo(tarjetaResponses.size());
-          assertThat(json).extractingPath("$[0]")
+          assertThat(json).extractingPath("$.content.length()").isEqualTo(tarjetaResponses.size());
+          assertThat(json).extractingPath("$.content[0]")
               .convertTo(TarjetaResponseDto.class).isEqualTo(tarjetaResponse2);
         });
 
     // Verify
-    verify(tarjetasService, only()).findAll(anyString(), anyString());
+    verify(tarjetasService, only()).findAll(anyString(), anyString(), isNull(), isNull());
   }
 
 
+  @Test
+  void getAll_withCursorAndSize() {
+    // Arrange
+    var page = TarjetaPageResponseDto.builder()
+        .content(List.of(tarjetaResponse2))
+        .size(1)
+        .nextCursor("aWQ6Mg")
+        .build();
+    when(tarjetasService.findAll(isNull(), isNull(), eq("aWQ6MQ"), eq(1))).thenReturn(page);
+
+    // Act
+    var result = mockMvcTester.get()
+        .uri(ENDPOINT + "?cursor=aWQ6MQ&size=1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .exchange();
+
+    // Assert
+    assertThat(result)
+        .hasStatusOk()
+        .bodyJson().satisfies(json -> {
+          assertThat(json).extractingPath("$.content.length()").isEqualTo(1);
+          assertThat(json).extractingPath("$.nextCursor").isEqualTo("aWQ6Mg");
+        });
+
+    // Verify
+    verify(tarjetasService, only()).findAll(isNull(), isNull(), eq("aWQ6MQ"), eq(1));
+  }
+
+  private TarjetaPageResponseDto toPage(List<TarjetaResponseDto> tarjetas) {
+    return TarjetaPageResponseDto.builder()
+        .content(tarjetas)
+        .size(tarjetas.size())
+        .build();
+  }
+
   @Test
   void getById_shouldReturnJsonWithTarjeta_whenValidIdProvided() {
     // Arrange
@@ -224,7 +272,7 @@ class TarjetasRestControllerTest {
         .cvc("123")
         .fechaCaducidad(LocalDate.of(2025,12,31))
         .titular("Ana")
-        .saldo(124.0)
+        .saldo(Dinero.of("124.0"))
         .build();
 
     when(tarjetasService.save(any(TarjetaCreateDto.class))).thenReturn(tarjetaSaved);
@@ -293,6 +341,40 @@ class TarjetasRestControllerTest {
 
   }
 
+  @Test
+  void createBulk_withNdjson() {
+    // Arrange
+    String requestBody = """
+           {"numero": "1111-2222-3333-4444", "cvc": "123", "fechaCaducidad": "2029-12-31", "titular": "Ana", "saldo": 1.0}
+           {"numero": "1111", "cvc": "123", "fechaCaducidad": "2029-12-31", "titular": "Ana", "saldo": 2.0}
+           """;
+    var resumen = TarjetaBulkResponseDto.builder()
+        .total(2)
+        .insertadas(1)
+        .errores(List.of(TarjetaBulkErrorDto.builder()
+            .indice(1)
+            .errores(Map.of("numero", "El número de tarjeta no es válido"))
+            .build()))
+        .build();
+    when(tarjetasImportService.saveAll(any())).thenReturn(resumen);
+
+    // Act
+    var result = mockMvcTester.post()
+        .uri(ENDPOINT + "/bulk")
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .content(requestBody)
+        .exchange();
+
+    // Assert
+    assertThat(result)
+        .hasStatusOk()
+        .bodyJson()
+        .convertTo(TarjetaBulkResponseDto.class)
+        .isEqualTo(resumen);
+
+    verify(tarjetasImportService, only()).saveAll(any());
+  }
+
   @Test
   void update() {
     // Arrange
@@ -309,14 +391,15 @@ class TarjetasRestControllerTest {
         .cvc("123")
         .fechaCaducidad(LocalDate.of(2025,12,31))
         .titular("Ana")
-        .saldo(500.0)
+        .saldo(Dinero.of("500.0"))
         .build();
 
-    when(tarjetasService.update(anyLong(), any(TarjetaUpdateDto.class))).thenReturn(tarjetaSaved);
+    when(tarjetasService.update(anyLong(), any(TarjetaUpdateDto.class), eq(0L))).thenReturn(tarjetaSaved);
 
     // Act
     var result = mockMvcTester.put()
         .uri(ENDPOINT+ "/" + id)
+        .header("If-Match", "\"0\"")
         .contentType(MediaType.APPLICATION_JSON)
         .content(requestBody)
         .exchange();
@@ -328,7 +411,7 @@ class TarjetasRestControllerTest {
         .convertTo(TarjetaResponseDto.class)
         .isEqualTo(tarjetaSaved);
 
-    verify(tarjetasService, only()).update(anyLong(), any(TarjetaUpdateDto.class));
+    verify(tarjetasService, only()).update(anyLong(), any(TarjetaUpdateDto.class), eq(0L));
 
   }
 
@@ -341,11 +424,12 @@ class TarjetasRestControllerTest {
               "saldo": 500.0
            }
            """;
-    when(tarjetasService.update(anyLong(), any(TarjetaUpdateDto.class))).thenThrow(new TarjetaNotFoundException(id));
+    when(tarjetasService.update(anyLong(), any(TarjetaUpdateDto.class), eq(0L))).thenThrow(new TarjetaNotFoundException(id));
 
     // Act
     var result = mockMvcTester.put()
         .uri(ENDPOINT + "/" + id)
+        .header("If-Match", "\"0\"")
         .contentType(MediaType.APPLICATION_JSON)
         .content(requestBody)
         .exchange();
@@ -358,7 +442,7 @@ class TarjetasRestControllerTest {
         .hasMessageContaining("no encontrada");
 
     // Verify
-    verify(tarjetasService, only()).update(anyLong(), any());
+    verify(tarjetasService, only()).update(anyLong(), any(), any());
   }
 
   @Test
@@ -377,14 +461,15 @@ class TarjetasRestControllerTest {
         .cvc("123")
         .fechaCaducidad(LocalDate.of(2025,12,31))
         .titular("Ana")
-        .saldo(500.0)
+        .saldo(Dinero.of("500.0"))
         .build();
 
-    when(tarjetasService.update(anyLong(), any(TarjetaUpdateDto.class))).thenReturn(tarjetaSaved);
+    when(tarjetasService.update(anyLong(), any(TarjetaUpdateDto.class), eq(0L))).thenReturn(tarjetaSaved);
 
     // Act
     var result = mockMvcTester.patch()
         .uri(ENDPOINT+ "/" + id)
+        .header("If-Match", "\"0\"")
         .contentType(MediaType.APPLICATION_JSON)
         .content(requestBody)
         .exchange();
@@ -396,7 +481,36 @@ class TarjetasRestControllerTest {
         .convertTo(TarjetaResponseDto.class)
         .isEqualTo(tarjetaSaved);
 
-    verify(tarjetasService, only()).update(anyLong(), any(TarjetaUpdateDto.class));
+    verify(tarjetasService, only()).update(anyLong(), any(TarjetaUpdateDto.class), eq(0L));
+  }
+
+  @Test
+  void update_withPreferReturnMinimal() {
+    // Arrange
+    Long id = 1L;
+    String requestBody = """
+           {
+              "saldo": 500.0
+           }
+           """;
+    doNothing().when(tarjetasService).updateById(anyLong(), any(TarjetaUpdateDto.class), any());
+
+    // Act
+    var result = mockMvcTester.put()
+        .uri(ENDPOINT+ "/" + id)
+        .header("Prefer", "return=minimal")
+        .header("If-Match", "W/\"0\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(requestBody)
+        .exchange();
+
+    // Assert
+    assertThat(result)
+        .hasStatus(HttpStatus.NO_CONTENT)
+        .hasHeader("Preference-Applied", "return=minimal");
+
+    // No se lee la tarjeta actualizada
+    verify(tarjetasService, only()).updateById(anyLong(), any(TarjetaUpdateDto.class), eq(0L));
   }
 
   @Test
@@ -0,0 +1,62 @@
+package es.carlosgs.tarjetas.tarjetas.events;
+
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasCache;
+import es.carlosgs.tarjetas.tarjetas.services.TarjetasService;
+import es.carlosgs.tarjetas.titulares.dto.TitularRequestDto;
+import es.carlosgs.tarjetas.titulares.services.TitularesService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Renombrar un titular invalida sus tarjetas ya cacheadas (la tarjeta 1 de data.sql es de Jose, el titular 2)
+@SpringBootTest
+class TitularRenombradoListenerTest {
+
+  @Autowired
+  private TarjetasService tarjetasService;
+  @Autowired
+  private TitularesService titularesService;
+  @Autowired
+  private TarjetasCache tarjetasCache;
+
+  @AfterEach
+  void tearDown() {
+    // Dejamos el nombre de data.sql para los demás tests
+    titularesService.update(2L, TitularRequestDto.builder().nombre("Jose").build());
+  }
+
+  @Test
+  void update_evictsCachedTarjetasOfTitular_WhenRenamed() {
+    // Arrange
+    assertEquals("Jose", tarjetasService.findById(1L).getTitular());
+    assertNotNull(tarjetasCache.getIfPresent(1L));
+
+    // Act
+    titularesService.update(2L, TitularRequestDto.builder().nombre("Josefa").build());
+
+    // Assert
+    // La entrada se ha invalidado y la siguiente lectura trae el nombre nuevo
+    assertAll(
+        () -> assertNull(tarjetasCache.getIfPresent(1L)),
+        () -> assertEquals("Josefa", tarjetasService.findById(1L).getTitular()),
+        () -> assertEquals("Josefa", tarjetasService.findAllByIds(List.of(1L)).getFirst().getTarjeta().getTitular())
+    );
+  }
+
+  @Test
+  void update_evictsCachedTarjetasOfTitular_WhenOnlyCaseChanges() {
+    // Arrange
+    tarjetasService.findById(1L);
+
+    // Act
+    titularesService.update(2L, TitularRequestDto.builder().nombre("JOSE").build());
+
+    // Assert
+    assertEquals("JOSE", tarjetasService.findById(1L).getTitular());
+  }
+}
@@ -2,7 +2,10 @@ package es.carlosgs.tarjetas.tarjetas.mappers;
 
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaUpdateDto;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
 import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.models.Titular;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
@@ -14,7 +17,7 @@ import static org.junit.jupiter.api.Assertions.*;
 class TarjetaMapperTest {
 
   // Inyectamos el mapper
-  private final TarjetaMapper tarjetaMapper = new TarjetaMapper();
+  private final TarjetaMapper tarjetaMapper = new TarjetaMapper(new NumerosTarjeta("secreto-de-pruebas"));
 
   @Test
   void toTarjeta_create() {
@@ -25,17 +28,19 @@ class TarjetaMapperTest {
         .cvc("555")
         .fechaCaducidad(LocalDate.of(2025,12,31))
         .titular("Jose")
-        .saldo(100.0)
+        .saldo(Dinero.of("100.0"))
         .build();
+    Titular titular = Titular.builder().id(2L).nombre("Jose").nombreNormalizado("jose").build();
     // Act
-    var res = tarjetaMapper.toTarjeta(tarjetaCreateDto);
+    var res = tarjetaMapper.toTarjeta(tarjetaCreateDto, titular);
 
     // Assert
     assertAll(
         () -> assertEquals(tarjetaCreateDto.getNumero(), res.getNumero()),
         () -> assertEquals(tarjetaCreateDto.getCvc(), res.getCvc()),
         () -> assertEquals(tarjetaCreateDto.getFechaCaducidad(), res.getFechaCaducidad()),
-        () -> assertEquals(tarjetaCreateDto.getTitular(), res.getTitular()),
+        () -> assertEquals(tarjetaCreateDto.getTitular(), res.getTitular().getNombre()),
+        () -> assertEquals(NumerosTarjeta.LONGITUD_HUELLA, res.getHuella().length()),
         () -> assertEquals(tarjetaCreateDto.getSaldo(), res.getSaldo())
     );
   }
@@ -48,7 +53,7 @@ class TarjetaMapperTest {
         .numero("1234-5678-1234-5678")
         .cvc("555")
         .fechaCaducidad(LocalDate.of(2025,12,31))
-        .saldo(100.0)
+        .saldo(Dinero.of("100.0"))
         .build();
 
     Tarjeta tarjeta = Tarjeta.builder()
@@ -78,8 +83,8 @@ class TarjetaMapperTest {
         .numero("1234-5678-1234-5678")
         .cvc("555")
         .fechaCaducidad(LocalDate.of(2025,12,31))
-        .titular("Jose")
-        .saldo(100.0)
+        .titular(Titular.builder().id(2L).nombre("Jose").nombreNormalizado("jose").build())
+        .saldo(Dinero.of("100.0"))
         .createdAt(LocalDateTime.now())
         .updatedAt(LocalDateTime.now())
         .uuid(UUID.fromString("57727bc2-0c1c-494e-bbaf-e952a778e478"))
@@ -92,7 +97,7 @@ class TarjetaMapperTest {
         () -> assertEquals(tarjeta.getNumero(), res.getNumero()),
         () -> assertEquals(tarjeta.getCvc(), res.getCvc()),
         () -> assertEquals(tarjeta.getFechaCaducidad(), res.getFechaCaducidad()),
-        () -> assertEquals(tarjeta.getTitular(), res.getTitular()),
+        () -> assertEquals(tarjeta.getTitular().getNombre(), res.getTitular()),
         () -> assertEquals(tarjeta.getSaldo(), res.getSaldo())
     );
   }
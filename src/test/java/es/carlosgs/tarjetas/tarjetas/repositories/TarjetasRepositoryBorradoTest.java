@@ -0,0 +1,91 @@
+package es.carlosgs.tarjetas.tarjetas.repositories;
+
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.models.Titular;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Borrado lógico: las tarjetas marcadas no se ven en las lecturas y la purga las borra por lotes
+@DataJpaTest
+class TarjetasRepositoryBorradoTest {
+  private static final NumerosTarjeta NUMEROS_TARJETA = new NumerosTarjeta("secreto-de-pruebas");
+
+  @Autowired
+  private TarjetasRepository repositorio;
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private Long idTarjeta;
+
+  @BeforeEach
+  void setUp() {
+    Titular titular = entityManager.persist(Titular.builder().nombre("Ana").nombreNormalizado("ana").build());
+    for (int i = 0; i < 3; i++) {
+      idTarjeta = entityManager.persist(Tarjeta.builder()
+          .numero("1111-2222-3333-444" + i)
+          .huella(NUMEROS_TARJETA.huella("1111-2222-3333-444" + i))
+          .cvc("123")
+          .fechaCaducidad(LocalDate.of(2030, 12, 31))
+          .saldo(Dinero.of("10.0"))
+          .titular(titular)
+          .build()).getId();
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private long filasEnTabla() {
+    return ((Number) entityManager.getEntityManager()
+        .createNativeQuery("SELECT COUNT(*) FROM TARJETAS").getSingleResult()).longValue();
+  }
+
+  @Test
+  void updateIsDeletedToTrueById_hidesTarjetaFromReads() {
+    // Act
+    int borradas = repositorio.updateIsDeletedToTrueById(idTarjeta);
+    int otraVez = repositorio.updateIsDeletedToTrueById(idTarjeta);
+
+    // Assert
+    assertAll(
+        () -> assertEquals(1, borradas),
+        // Ya estaba borrada
+        () -> assertEquals(0, otraVez),
+        () -> assertTrue(repositorio.findById(idTarjeta).isEmpty()),
+        () -> assertTrue(repositorio.findResponseById(idTarjeta).isEmpty()),
+        () -> assertTrue(repositorio.findResponsesByIdGreaterThan(idTarjeta - 1, Limit.of(10)).isEmpty())
+    );
+  }
+
+  @Test
+  void purgeDeletedBefore_deletesOnlyTombstonesInBatches() {
+    // Arrange
+    long antes = filasEnTabla();
+    repositorio.updateIsDeletedToTrueById(idTarjeta);
+    repositorio.updateIsDeletedToTrueById(idTarjeta - 1);
+    LocalDateTime limite = LocalDateTime.now().plusMinutes(1);
+
+    // Act
+    int primerLote = repositorio.purgeDeletedBefore(limite, 1);
+    int segundoLote = repositorio.purgeDeletedBefore(limite, 1);
+    int tercerLote = repositorio.purgeDeletedBefore(limite, 1);
+
+    // Assert
+    assertAll(
+        () -> assertEquals(1, primerLote),
+        () -> assertEquals(1, segundoLote),
+        () -> assertEquals(0, tercerLote),
+        () -> assertEquals(antes - 2, filasEnTabla())
+    );
+  }
+}
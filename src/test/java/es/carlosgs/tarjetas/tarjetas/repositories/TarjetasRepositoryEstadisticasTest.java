@@ -0,0 +1,179 @@
+package es.carlosgs.tarjetas.tarjetas.repositories;
+
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.models.Titular;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Las estadísticas se agregan en la base de datos y las caducidades se recorren por rangos de fecha
+// A las dos tarjetas de data.sql (100 y 200, caducan en 2025-12) se añaden tres de Ana
+// con saldos en tramos distintos, una de ellas borrada, que no cuenta
+@DataJpaTest
+class TarjetasRepositoryEstadisticasTest {
+  private static final NumerosTarjeta NUMEROS_TARJETA = new NumerosTarjeta("secreto-de-pruebas");
+
+  @Autowired
+  private TarjetasRepository repositorio;
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @BeforeEach
+  void setUp() {
+    Titular titular = entityManager.persist(Titular.builder().nombre("Ana").nombreNormalizado("ana").build());
+    tarjeta(titular, "1111-2222-3333-4440", "5.50", LocalDate.of(2030, 1, 15), false);
+    tarjeta(titular, "1111-2222-3333-4441", "12000.00", LocalDate.of(2030, 1, 31), false);
+    tarjeta(titular, "1111-2222-3333-4442", "50.00", LocalDate.of(2030, 1, 20), true);
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private void tarjeta(Titular titular, String numero, String saldo, LocalDate fechaCaducidad, boolean borrada) {
+    entityManager.persist(Tarjeta.builder()
+        .numero(numero)
+        .huella(NUMEROS_TARJETA.huella(numero))
+        .cvc("123")
+        .fechaCaducidad(fechaCaducidad)
+        .saldo(Dinero.of(saldo))
+        .titular(titular)
+        .isDeleted(borrada)
+        .build());
+  }
+
+  private static void assertImporte(String esperado, BigDecimal importe) {
+    assertEquals(0, new BigDecimal(esperado).compareTo(importe), () -> esperado + " != " + importe);
+  }
+
+  @Test
+  void summarize_aggregatesActiveTarjetas() {
+    // Act
+    var resumen = repositorio.summarize(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31));
+
+    // Assert
+    assertAll(
+        () -> assertEquals(4L, resumen.getTarjetas()),
+        () -> assertEquals(3L, resumen.getTitulares()),
+        () -> assertImporte("12305.50", resumen.getSaldoTotal()),
+        () -> assertImporte("5.50", resumen.getSaldoMinimo()),
+        () -> assertImporte("12000.00", resumen.getSaldoMaximo()),
+        () -> assertEquals(2L, resumen.getCaducan())
+    );
+  }
+
+  @Test
+  void countByFechaCaducidadBetweenGroupByMes_groupsByMonth() {
+    // Act
+    var meses = repositorio.countByFechaCaducidadBetweenGroupByMes(
+        LocalDate.of(2025, 1, 1), LocalDate.of(2030, 12, 31));
+
+    // Assert
+    assertAll(
+        () -> assertEquals(2, meses.size()),
+        () -> assertEquals(2025, meses.get(0).getAnio()),
+        () -> assertEquals(12, meses.get(0).getMes()),
+        () -> assertEquals(2L, meses.get(0).getTarjetas()),
+        () -> assertEquals(2030, meses.get(1).getAnio()),
+        () -> assertEquals(1, meses.get(1).getMes()),
+        () -> assertEquals(2L, meses.get(1).getTarjetas()),
+        () -> assertImporte("12005.50", meses.get(1).getSaldoTotal())
+    );
+  }
+
+  @Test
+  void countGroupBySaldoTramo_groupsByMagnitude() {
+    // Act
+    var tramos = repositorio.countGroupBySaldoTramo();
+
+    // Assert
+    // [0, 10): 5.50, [100, 1000): 100 y 200, [10000, ...): 12000
+    assertAll(
+        () -> assertEquals(3, tramos.size()),
+        () -> assertImporte("0", tramos.get(0).getDesde()),
+        () -> assertImporte("10", tramos.get(0).getHasta()),
+        () -> assertEquals(1L, tramos.get(0).getTarjetas()),
+        () -> assertImporte("100", tramos.get(1).getDesde()),
+        () -> assertEquals(2L, tramos.get(1).getTarjetas()),
+        () -> assertImporte("300.00", tramos.get(1).getSaldoTotal()),
+        () -> assertImporte("10000", tramos.get(2).getDesde()),
+        () -> assertNull(tramos.get(2).getHasta())
+    );
+  }
+
+  @Test
+  void findResponsesByFechaCaducidadBetweenAfter_pagesByFechaAndId() {
+    // Arrange
+    LocalDate desde = LocalDate.of(2030, 1, 1);
+    LocalDate hasta = LocalDate.of(2030, 1, 31);
+
+    // Act
+    // De una en una, continuando desde la clave de la anterior, como TarjetasCaducidadJob
+    var primera = repositorio.findResponsesByFechaCaducidadBetweenAfter(desde, hasta, 0L, Limit.of(1));
+    var segunda = repositorio.findResponsesByFechaCaducidadBetweenAfter(
+        primera.getFirst().getFechaCaducidad(), hasta, primera.getFirst().getId(), Limit.of(1));
+    var tercera = repositorio.findResponsesByFechaCaducidadBetweenAfter(
+        segunda.getFirst().getFechaCaducidad(), hasta, segunda.getFirst().getId(), Limit.of(1));
+
+    // Assert
+    // La borrada (2030-01-20) no sale
+    assertAll(
+        () -> assertEquals(LocalDate.of(2030, 1, 15), primera.getFirst().getFechaCaducidad()),
+        () -> assertEquals(LocalDate.of(2030, 1, 31), segunda.getFirst().getFechaCaducidad()),
+        () -> assertTrue(tercera.isEmpty())
+    );
+  }
+
+  @Test
+  void countGroupBySaldoTramo_putsNegativeSaldosInOwnTramo() {
+    // Arrange
+    Titular titular = entityManager.persist(Titular.builder().nombre("Eva").nombreNormalizado("eva").build());
+    tarjeta(titular, "1111-2222-3333-4443", "-3.25", LocalDate.of(2030, 2, 1), false);
+    entityManager.flush();
+
+    // Act
+    var tramos = repositorio.countGroupBySaldoTramo();
+
+    // Assert
+    // El negativo va primero, en (sin límite, 0), y no en [0, 10) con el 5.50
+    assertAll(
+        () -> assertEquals(4, tramos.size()),
+        () -> assertNull(tramos.get(0).getDesde()),
+        () -> assertImporte("0", tramos.get(0).getHasta()),
+        () -> assertEquals(1L, tramos.get(0).getTarjetas()),
+        () -> assertImporte("-3.25", tramos.get(0).getSaldoTotal()),
+        () -> assertImporte("0", tramos.get(1).getDesde()),
+        () -> assertEquals(1L, tramos.get(1).getTarjetas())
+    );
+  }
+
+  @Test
+  void sumSaldoByTitularIdGreaterThanGroupByTitular_pagesByTitularId() {
+    // Act
+    var primera = repositorio.sumSaldoByTitularIdGreaterThanGroupByTitular(0L, 2);
+    var siguiente = repositorio.sumSaldoByTitularIdGreaterThanGroupByTitular(2L, 10);
+
+    // Assert
+    // Carlos (1) no tiene tarjetas y sale con 0; después de Jose (2) van María (3) y Ana
+    assertAll(
+        () -> assertEquals(2, primera.size()),
+        () -> assertEquals(1L, primera.get(0).getTitularId()),
+        () -> assertEquals(0L, primera.get(0).getTarjetas()),
+        () -> assertEquals(2L, primera.get(1).getTitularId()),
+        () -> assertImporte("100.00", primera.get(1).getSaldoTotal()),
+        () -> assertEquals(2, siguiente.size()),
+        () -> assertEquals(3L, siguiente.get(0).getTitularId()),
+        () -> assertEquals("Ana", siguiente.get(1).getTitular()),
+        () -> assertEquals(2L, siguiente.get(1).getTarjetas()),
+        () -> assertImporte("12005.50", siguiente.get(1).getSaldoTotal())
+    );
+  }
+}
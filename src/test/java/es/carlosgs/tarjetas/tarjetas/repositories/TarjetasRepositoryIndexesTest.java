@@ -0,0 +1,126 @@
+package es.carlosgs.tarjetas.tarjetas.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Comprueba que los índices declarados en las entidades existen
+// y que las consultas de los repositorios los usan, con el plan (EXPLAIN) de H2
+// En el plan, cada tabla lleva un comentario con el índice que usa, o tableScan si la recorre entera
+@DataJpaTest
+class TarjetasRepositoryIndexesTest {
+  private static final String HUELLA = "25d6a9a4b288bed7306419388675d7243ffb4db5a6c959facd953ea6e39a3152";
+  // Misma proyección que TarjetasRepository.SELECT_RESPONSE_DTO
+  private static final String SELECT_RESPONSE = "SELECT t.id, t.numero, t.cvc, t.fecha_caducidad, tit.nombre, t.saldo, "
+      + "t.created_at, t.updated_at, t.uuid FROM TARJETAS t JOIN TITULARES tit ON tit.id = t.titular_id ";
+  // Misma subconsulta que TitularTrigramasRepository.TITULAR_IDS_CON_TRIGRAMAS(_SQL), buscando "jose"
+  private static final String TITULAR_IDS_CON_TRIGRAMAS = "SELECT tg.titular_id FROM TITULARES_TRIGRAMAS tg "
+      + "WHERE tg.trigrama IN ('jos', 'ose') GROUP BY tg.titular_id HAVING COUNT(DISTINCT tg.trigrama) = 2";
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private String explain(String sql) {
+    return entityManager.getEntityManager().createNativeQuery("EXPLAIN " + sql).getSingleResult().toString();
+  }
+
+  private void assertUsesIndex(String sql, String indice) {
+    String plan = explain(sql);
+    assertAll(
+        () -> assertFalse(plan.contains("tableScan"), () -> "Recorre la tabla entera: " + plan),
+        () -> assertTrue(plan.toUpperCase().contains(indice.toUpperCase()), () -> "No usa " + indice + ": " + plan)
+    );
+  }
+
+  @Test
+  void entitiesDeclareIndexes() {
+    // Act
+    // Los índices unique se crean como restricciones: H2 les pone nombre propio al índice, así que buscamos
+    // también entre los nombres de las restricciones
+    @SuppressWarnings("unchecked")
+    List<String> indices = entityManager.getEntityManager().createNativeQuery(
+        "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME IN ('TARJETAS', 'TITULARES') "
+            + "UNION SELECT LOWER(CONSTRAINT_NAME) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+            + "WHERE TABLE_NAME IN ('TARJETAS', 'TITULARES')")
+        .getResultList();
+
+    // Assert
+    assertTrue(indices.containsAll(List.of(
+        "idx_tarjetas_huella", "idx_tarjetas_numero", "idx_tarjetas_titular_activas", "idx_tarjetas_borradas",
+        "idx_tarjetas_fecha_caducidad",
+        "idx_titulares_nombre_normalizado", "idx_titulares_is_deleted")), () -> "Índices: " + indices);
+  }
+
+  @Test
+  void findResponsesByIdGreaterThan_usesPrimaryKeyRange() {
+    assertUsesIndex(SELECT_RESPONSE + "WHERE t.id > 0 ORDER BY t.id FETCH FIRST 21 ROWS ONLY", "PRIMARY_KEY");
+  }
+
+  @Test
+  void findResponsesByHuellaAndIdGreaterThan_usesHuellaIndex() {
+    assertUsesIndex(SELECT_RESPONSE + "WHERE t.huella = '" + HUELLA + "' AND t.id > 0 ORDER BY t.id",
+        "idx_tarjetas_huella");
+  }
+
+  @Test
+  void findResponsesByTitularTrigramasAndIdGreaterThan_usesTitularIndex() {
+    // is_deleted = false lo añade la @SQLRestriction de Tarjeta (y a mano la consulta reactiva)
+    assertUsesIndex(SELECT_RESPONSE + "WHERE t.titular_id IN (" + TITULAR_IDS_CON_TRIGRAMAS + ") "
+        + "AND t.is_deleted = false AND tit.nombre_normalizado LIKE '%jose%' AND t.id > 0 ORDER BY t.id",
+        "idx_tarjetas_titular_activas");
+  }
+
+  @Test
+  void findResponsesByTitularIdAndIdGreaterThan_usesTitularIndex() {
+    assertUsesIndex(SELECT_RESPONSE + "WHERE t.titular_id = 2 AND t.is_deleted = false AND t.id > 0 ORDER BY t.id",
+        "idx_tarjetas_titular_activas");
+  }
+
+  @Test
+  void activeTarjetasOfTitular_usesCompositeIndex() {
+    assertUsesIndex("SELECT t.id FROM TARJETAS t WHERE t.titular_id = 2 AND t.is_deleted = false ORDER BY t.id",
+        "idx_tarjetas_titular_activas");
+  }
+
+  @Test
+  void findResponsesByFechaCaducidadBetweenAfter_usesFechaCaducidadIndex() {
+    assertUsesIndex(SELECT_RESPONSE + "WHERE t.fecha_caducidad BETWEEN DATE '2025-12-01' AND DATE '2025-12-31' "
+        + "AND (t.fecha_caducidad > DATE '2025-12-01' OR t.id > 0) ORDER BY t.fecha_caducidad, t.id",
+        "idx_tarjetas_fecha_caducidad");
+  }
+
+  @Test
+  void findResponseByUuid_usesUniqueIndex() {
+    // El índice de la restricción unique lo nombra Hibernate, solo comprobamos que no recorre la tabla
+    String plan = explain(SELECT_RESPONSE + "WHERE t.uuid = '57727bc2-0c1c-494e-bbaf-e952a778e478'");
+    assertFalse(plan.contains("tableScan"), () -> "Recorre la tabla entera: " + plan);
+  }
+
+  @Test
+  void findByNumero_usesNumeroIndex() {
+    assertUsesIndex("SELECT t.id FROM TARJETAS t WHERE t.numero = '1234-5678-1234-5678'", "idx_tarjetas_numero");
+  }
+
+  @Test
+  void purgeDeletedBefore_usesBorradasIndex() {
+    // Misma subconsulta que TarjetasRepository.purgeDeletedBefore
+    assertUsesIndex("SELECT id FROM TARJETAS WHERE is_deleted = TRUE AND updated_at < TIMESTAMP '2025-01-01 00:00:00' "
+        + "ORDER BY id FETCH FIRST 500 ROWS ONLY", "idx_tarjetas_borradas");
+  }
+
+  @Test
+  void findTitularByNombreNormalizado_usesNombreNormalizadoIndex() {
+    assertUsesIndex("SELECT tit.id FROM TITULARES tit WHERE tit.nombre_normalizado = 'jose'",
+        "idx_titulares_nombre_normalizado");
+  }
+
+  @Test
+  void titularIdsConTrigramas_usesTrigramaIndex() {
+    assertUsesIndex(TITULAR_IDS_CON_TRIGRAMAS, "idx_titulares_trigramas_trigrama");
+  }
+}
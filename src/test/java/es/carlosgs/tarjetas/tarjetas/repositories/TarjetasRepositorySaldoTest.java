@@ -0,0 +1,171 @@
+package es.carlosgs.tarjetas.tarjetas.repositories;
+
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.models.Titular;
+import es.carlosgs.tarjetas.titulares.repositories.TitularesRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Muchos hilos modificando el saldo de la misma tarjeta a la vez: no se pierde ninguna actualización
+// Sin la transacción del test, cada sentencia va en su propia transacción como en la aplicación
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TarjetasRepositorySaldoTest {
+  private static final NumerosTarjeta NUMEROS_TARJETA = new NumerosTarjeta("secreto-de-pruebas");
+  private static final int HILOS = 8;
+  private static final int OPERACIONES = 250;
+  private static final BigDecimal UN_EURO = new BigDecimal("1.00");
+
+  @Autowired
+  private TarjetasRepository repositorio;
+  @Autowired
+  private TitularesRepository titularesRepository;
+
+  private Titular titular;
+  private Long idTarjeta;
+
+  @BeforeEach
+  void setUp() {
+    titular = titularesRepository.save(Titular.builder().nombre("Saldo").nombreNormalizado("saldo").build());
+    idTarjeta = repositorio.save(Tarjeta.builder()
+        .numero("1111-2222-3333-4444")
+        .huella(NUMEROS_TARJETA.huella("1111-2222-3333-4444"))
+        .cvc("123")
+        .fechaCaducidad(LocalDate.of(2030, 12, 31))
+        .saldo(Dinero.CERO)
+        .titular(titular)
+        .build()).getId();
+  }
+
+  @AfterEach
+  void tearDown() {
+    repositorio.deleteById(idTarjeta);
+    titularesRepository.delete(titular);
+  }
+
+  // Lanza la tarea en todos los hilos a la vez y devuelve la suma de sus resultados
+  private int enParalelo(Callable<Integer> tarea) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+    CountDownLatch salida = new CountDownLatch(1);
+    List<Future<Integer>> resultados = new ArrayList<>();
+    for (int i = 0; i < HILOS; i++) {
+      resultados.add(executor.submit(() -> {
+        salida.await();
+        return tarea.call();
+      }));
+    }
+    salida.countDown();
+    int total = 0;
+    for (Future<Integer> resultado : resultados) {
+      total += resultado.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    return total;
+  }
+
+  private Tarjeta tarjeta() {
+    return repositorio.findById(idTarjeta).orElseThrow();
+  }
+
+  @Test
+  void addSaldoById_concurrentAbonos_noLostUpdates() throws Exception {
+    // Act
+    int abonos = enParalelo(() -> {
+      int hechos = 0;
+      for (int i = 0; i < OPERACIONES; i++) {
+        hechos += repositorio.addSaldoById(idTarjeta, UN_EURO, LocalDateTime.now());
+      }
+      return hechos;
+    });
+
+    // Assert
+    Tarjeta tarjeta = tarjeta();
+    assertAll(
+        () -> assertEquals(HILOS * OPERACIONES, abonos),
+        () -> assertEquals(Dinero.ofCentimos(HILOS * OPERACIONES * 100L), tarjeta.getSaldo()),
+        // Cada abono es una versión nueva
+        () -> assertEquals(HILOS * OPERACIONES, tarjeta.getVersion())
+    );
+  }
+
+  @Test
+  void subtractSaldoById_concurrentCargos_neverBelowZero() throws Exception {
+    // Arrange
+    repositorio.addSaldoById(idTarjeta, new BigDecimal("100.00"), LocalDateTime.now());
+
+    // Act
+    // Todos los hilos intentan cargar 1 muchas más veces de las que permite el saldo
+    int cargos = enParalelo(() -> {
+      int hechos = 0;
+      for (int i = 0; i < OPERACIONES; i++) {
+        hechos += repositorio.subtractSaldoById(idTarjeta, UN_EURO, LocalDateTime.now());
+      }
+      return hechos;
+    });
+
+    // Assert
+    assertAll(
+        () -> assertEquals(100, cargos),
+        () -> assertEquals(Dinero.CERO, tarjeta().getSaldo())
+    );
+  }
+
+  @Test
+  void updateById_withSameVersion_onlyOneWins() throws Exception {
+    // Arrange
+    Long version = tarjeta().getVersion();
+
+    // Act
+    // Todos leen la misma versión e intentan actualizar con If-Match
+    int actualizadas = enParalelo(() -> repositorio.updateById(idTarjeta, null, null, null, null,
+        Dinero.ofCentimos(Thread.currentThread().threadId()).toBigDecimal(), LocalDateTime.now(), version));
+
+    // Assert
+    assertAll(
+        () -> assertEquals(1, actualizadas),
+        () -> assertEquals(version + 1, tarjeta().getVersion())
+    );
+  }
+
+  @Test
+  void sumSaldoByTitularId_sumsExactlyInDatabase() {
+    // Arrange
+    // Con Double, 0.10 + 0.20 no es 0.30
+    repositorio.addSaldoById(idTarjeta, new BigDecimal("0.10"), LocalDateTime.now());
+    repositorio.addSaldoById(idTarjeta, new BigDecimal("0.20"), LocalDateTime.now());
+
+    // Act
+    var saldo = repositorio.sumSaldoByTitularId(titular.getId()).orElseThrow();
+
+    // Assert
+    assertAll(
+        () -> assertEquals(Dinero.of("0.30"), tarjeta().getSaldo()),
+        () -> assertEquals(1L, saldo.getTarjetas()),
+        () -> assertEquals(0, new BigDecimal("0.30").compareTo(saldo.getSaldoTotal())),
+        () -> assertTrue(repositorio.sumSaldoByTitularIdGreaterThanGroupByTitular(titular.getId() - 1, 1).stream()
+            .anyMatch(s -> s.getTitularId().equals(titular.getId()))),
+        () -> assertTrue(repositorio.sumSaldoByTitularId(-1L).isEmpty())
+    );
+  }
+}
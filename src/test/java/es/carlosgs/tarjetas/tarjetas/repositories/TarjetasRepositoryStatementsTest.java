@@ -0,0 +1,117 @@
+package es.carlosgs.tarjetas.tarjetas.repositories;
+
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.models.Titular;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Cuenta las sentencias SQL que lanza cada lectura con las estadísticas de Hibernate
+// para comprobar que no hay N+1 al resolver el titular de cada tarjeta
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TarjetasRepositoryStatementsTest {
+  private static final NumerosTarjeta NUMEROS_TARJETA = new NumerosTarjeta("secreto-de-pruebas");
+
+  @Autowired
+  private TarjetasRepository repositorio;
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private Statistics statistics;
+  private Long idTarjeta;
+
+  @BeforeEach
+  void setUp() {
+    // Varias tarjetas de titulares distintos, que es lo que provocaría una consulta por titular
+    for (String nombre : new String[]{"Ana", "Luis", "Pepe", "Lucía"}) {
+      Titular titular = entityManager.persist(Titular.builder()
+          .nombre(nombre)
+          .nombreNormalizado(nombre.toLowerCase())
+          .build());
+      for (int i = 0; i < 3; i++) {
+        Tarjeta tarjeta = entityManager.persist(Tarjeta.builder()
+            .numero("1111-2222-3333-444" + i)
+            .huella(NUMEROS_TARJETA.huella("1111-2222-3333-444" + i))
+            .cvc("123")
+            .fechaCaducidad(LocalDate.of(2030, 12, 31))
+            .saldo(Dinero.of("10.0"))
+            .titular(titular)
+            .build());
+        idTarjeta = tarjeta.getId();
+      }
+    }
+    entityManager.flush();
+    // Vaciamos el contexto de persistencia para que nada venga ya cargado
+    entityManager.clear();
+
+    statistics = entityManager.getEntityManager().getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void findResponsesByIdGreaterThan_runsSingleStatement() {
+    // Act
+    var tarjetas = repositorio.findResponsesByIdGreaterThan(0L, Limit.of(100));
+
+    // Assert
+    assertAll(
+        () -> assertTrue(tarjetas.size() >= 12),
+        () -> assertTrue(tarjetas.stream().allMatch(t -> t.getTitular() != null)),
+        () -> assertEquals(1, statistics.getPrepareStatementCount())
+    );
+  }
+
+  @Test
+  void findResponsesByTitularTrigramasAndIdGreaterThan_runsSingleStatement() {
+    // Act
+    // Jose, de data.sql, con sus trigramas indexados; los candidatos se resuelven dentro de la misma consulta
+    var tarjetas = repositorio.findResponsesByTitularTrigramasAndIdGreaterThan(Set.of("jos", "ose"), 2, "jose",
+        0L, Limit.of(100));
+
+    // Assert
+    assertAll(
+        () -> assertEquals(1, tarjetas.size()),
+        () -> assertEquals("Jose", tarjetas.getFirst().getTitular()),
+        () -> assertEquals(1, statistics.getPrepareStatementCount())
+    );
+  }
+
+  @Test
+  void findResponseById_runsSingleStatement() {
+    // Act
+    var tarjeta = repositorio.findResponseById(idTarjeta);
+
+    // Assert
+    assertAll(
+        () -> assertTrue(tarjeta.isPresent()),
+        () -> assertEquals("Lucía", tarjeta.get().getTitular()),
+        () -> assertEquals(1, statistics.getPrepareStatementCount())
+    );
+  }
+
+  @Test
+  void findById_fetchesTitularInSameStatement() {
+    // Act
+    var tarjeta = repositorio.findById(idTarjeta);
+
+    // Assert
+    assertAll(
+        () -> assertTrue(tarjeta.isPresent()),
+        () -> assertEquals("Lucía", tarjeta.get().getTitular().getNombre()),
+        () -> assertEquals(1, statistics.getPrepareStatementCount())
+    );
+  }
+}
@@ -1,6 +1,9 @@
 package es.carlosgs.tarjetas.tarjetas.repositories;
 
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
 import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.models.Titular;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,28 +26,20 @@ import static org.junit.jupiter.api.Assertions.*;
 @DataJpaTest
 class TarjetasRepositoryTest {
 
+  private static final NumerosTarjeta NUMEROS_TARJETA = new NumerosTarjeta("secreto-de-pruebas");
+
+  // Misma tarjeta (mismo uuid) que la tarjeta 1 de reset.sql
   private final Tarjeta tarjeta1 = Tarjeta.builder()
       .numero("1234-5678-1234-5678")
+      .huella(NUMEROS_TARJETA.huella("1234-5678-1234-5678"))
       .cvc("555")
       .fechaCaducidad(LocalDate.of(2025,12,31))
-      .titular("Jose")
-      .saldo(100.0)
+      .saldo(Dinero.of("100.0"))
       .createdAt(LocalDateTime.now())
       .updatedAt(LocalDateTime.now())
       .uuid(UUID.fromString("57727bc2-0c1c-494e-bbaf-e952a778e478"))
       .build();
 
-  private final Tarjeta tarjeta2 = Tarjeta.builder()
-      .numero("4321-5678-1234-5678")
-      .cvc("555")
-      .fechaCaducidad(LocalDate.of(2025,12,31))
-      .titular("Juan")
-      .saldo(100.0)
-      .createdAt(LocalDateTime.now())
-      .updatedAt(LocalDateTime.now())
-      .uuid(UUID.fromString("b36835eb-e56a-4023-b058-52bfa600fee5"))
-      .build();
-
   @Autowired
   private TarjetasRepository repositorio;
   @Autowired
@@ -52,10 +47,8 @@ class TarjetasRepositoryTest {
 
   @BeforeEach
   void setUp() {
-    // Vamos a salvar dos tarjetas
-    entityManager.merge(tarjeta1);
-    entityManager.merge(tarjeta2);
-    entityManager.flush();
+    // Las dos tarjetas de reset.sql son de Jose (titular 2) y María (titular 3)
+    tarjeta1.setTitular(entityManager.find(Titular.class, 2L));
   }
 
   @Test
@@ -88,13 +81,13 @@ class TarjetasRepositoryTest {
   void findAllByTitular() {
     // Act
     String titular = "Jose";
-    List<Tarjeta> tarjetas = repositorio.findByTitularContainsIgnoreCase(titular);
+    List<Tarjeta> tarjetas = repositorio.findByTitularContainsIgnoreCase("jose");
 
     // Assert
     assertAll("findAllByNumero",
         () -> assertNotNull(tarjetas),
         () -> assertEquals(1, tarjetas.size()),
-        () -> assertEquals(titular, tarjetas.getFirst().getTitular())
+        () -> assertEquals(titular, tarjetas.getFirst().getTitular().getNombre())
     );
   }
 
@@ -102,14 +95,14 @@ class TarjetasRepositoryTest {
   void findAllByNumeroAndTitular() {
     // Act
     String numero = "4321-5678-1234-5678";
-    String titular = "Juan";
-    List<Tarjeta> tarjetas = repositorio.findByNumeroAndTitularContainsIgnoreCase(numero, titular);
+    String titular = "María";
+    List<Tarjeta> tarjetas = repositorio.findByNumeroAndTitularContainsIgnoreCase(numero, "maría");
     // Assert
     assertAll(
         () -> assertNotNull(tarjetas),
         () -> assertEquals(1, tarjetas.size()),
         () -> assertEquals(numero, tarjetas.getFirst().getNumero()),
-        () -> assertEquals(titular, tarjetas.getFirst().getTitular())
+        () -> assertEquals(titular, tarjetas.getFirst().getTitular().getNombre())
     );
   }
 
@@ -216,8 +209,9 @@ class TarjetasRepositoryTest {
         .numero("2222-5678-1234-5678")
         .cvc("123")
         .fechaCaducidad(LocalDate.of(2029,12,31))
-        .titular("María")
-        .saldo(300.0)
+        .huella(NUMEROS_TARJETA.huella("2222-5678-1234-5678"))
+        .titular(entityManager.find(Titular.class, 3L))
+        .saldo(Dinero.of("300.0"))
         .build();
 
     // Act
@@ -239,7 +233,8 @@ class TarjetasRepositoryTest {
     Tarjeta tarjetaExistente = tarjeta1;
 
     // Act & Assert
-    assertThrows(DataIntegrityViolationException.class, () -> repositorio.save(tarjetaExistente));
+    // El uuid repetido sólo falla al volcar el insert a la base de datos
+    assertThrows(DataIntegrityViolationException.class, () -> repositorio.saveAndFlush(tarjetaExistente));
 
   }
 
@@ -0,0 +1,50 @@
+package es.carlosgs.tarjetas.tarjetas.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumerosTarjetaTest {
+  private final NumerosTarjeta numerosTarjeta = new NumerosTarjeta("secreto-de-pruebas");
+
+  @Test
+  void canonico_keepsOnlyDigits() {
+    assertAll(
+        () -> assertEquals("1234567812345678", NumerosTarjeta.canonico("1234-5678 1234-5678")),
+        () -> assertNull(NumerosTarjeta.canonico(null))
+    );
+  }
+
+  @Test
+  void huella_isSameForAnyFormat() {
+    String huella = numerosTarjeta.huella("1234567812345678");
+    assertAll(
+        () -> assertEquals(NumerosTarjeta.LONGITUD_HUELLA, huella.length()),
+        () -> assertEquals(huella, numerosTarjeta.huella("1234-5678-1234-5678")),
+        () -> assertEquals(huella, numerosTarjeta.huella("1234 5678 1234 5678")),
+        () -> assertNull(numerosTarjeta.huella(null))
+    );
+  }
+
+  @Test
+  void huella_dependsOnSecreto() {
+    // Con otro secreto la huella del mismo número es otra: sin el secreto no se puede recalcular
+    assertNotEquals(numerosTarjeta.huella("1234-5678-1234-5678"),
+        new NumerosTarjeta("otro-secreto").huella("1234-5678-1234-5678"));
+  }
+
+  @Test
+  void huella_matchesDataSql_WithSecretoDeDesarrollo() {
+    // Huella de la tarjeta 1 de data.sql, calculada con el secreto por defecto de application.properties
+    assertEquals("25d6a9a4b288bed7306419388675d7243ffb4db5a6c959facd953ea6e39a3152",
+        new NumerosTarjeta("tarjetas-desarrollo").huella("1234-5678-1234-5678"));
+  }
+
+  @Test
+  void constructor_throws_WhenSecretoMissing() {
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> new NumerosTarjeta((String) null)),
+        () -> assertThrows(IllegalStateException.class, () -> new NumerosTarjeta(" "))
+    );
+  }
+}
@@ -0,0 +1,197 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaNotFoundException;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Comprueba con Caffeine real que una carga lenta concurrente con una modificación
+// nunca deja en caché una versión anterior de la tarjeta
+class TarjetasCacheTest {
+  private static final Long ID = 1L;
+  private static final UUID UUID_TARJETA = UUID.fromString("57727bc2-0c1c-494e-bbaf-e952a778e478");
+
+  private TarjetasCache tarjetasCache;
+  // Hace de base de datos: la versión actual de la tarjeta o null si está borrada
+  private final AtomicReference<TarjetaResponseDto> baseDatos = new AtomicReference<>();
+
+  @BeforeEach
+  void setUp() {
+    tarjetasCache = new TarjetasCache(new CaffeineCacheManager(TarjetasCache.TARJETAS, TarjetasCache.TARJETAS_UUID));
+    baseDatos.set(tarjeta(10000));
+  }
+
+  private TarjetaResponseDto tarjeta(long centimos) {
+    return TarjetaResponseDto.builder().id(ID).uuid(UUID_TARJETA).saldo(Dinero.ofCentimos(centimos)).build();
+  }
+
+  private TarjetaResponseDto cargar() {
+    var tarjeta = baseDatos.get();
+    if (tarjeta == null) {
+      throw new TarjetaNotFoundException(ID);
+    }
+    return tarjeta;
+  }
+
+  @Test
+  void put_DuringSlowLoad_ShouldLeaveUpdatedTarjeta() throws Exception {
+    // Arrange
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch cargando = new CountDownLatch(1);
+    CountDownLatch liberarCarga = new CountDownLatch(1);
+
+    // Act
+    // Un lector empieza a cargar la versión antigua y se queda parado
+    Future<TarjetaResponseDto> lectura = executor.submit(() -> tarjetasCache.get(ID, () -> {
+      var antigua = cargar();
+      cargando.countDown();
+      await(liberarCarga);
+      return antigua;
+    }));
+    assertTrue(cargando.await(5, TimeUnit.SECONDS));
+    // Mientras, se actualiza la tarjeta
+    Future<?> escritura = executor.submit(() -> {
+      baseDatos.set(tarjeta(20000));
+      tarjetasCache.put(baseDatos.get());
+    });
+    liberarCarga.countDown();
+    lectura.get(5, TimeUnit.SECONDS);
+    escritura.get(5, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    // Assert
+    assertEquals(Dinero.ofCentimos(20000), tarjetasCache.get(ID, () -> fail("Debería estar en caché")).getSaldo());
+  }
+
+  @Test
+  void evict_DuringSlowLoad_ShouldNotLeaveDeletedTarjeta() throws Exception {
+    // Arrange
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch cargando = new CountDownLatch(1);
+    CountDownLatch liberarCarga = new CountDownLatch(1);
+    tarjetasCache.getId(UUID_TARJETA, () -> ID);
+
+    // Act
+    Future<TarjetaResponseDto> lectura = executor.submit(() -> tarjetasCache.get(ID, () -> {
+      var antigua = cargar();
+      cargando.countDown();
+      await(liberarCarga);
+      return antigua;
+    }));
+    assertTrue(cargando.await(5, TimeUnit.SECONDS));
+    // Mientras, se borra la tarjeta
+    Future<?> borrado = executor.submit(() -> {
+      baseDatos.set(null);
+      tarjetasCache.evict(ID, UUID_TARJETA);
+    });
+    liberarCarga.countDown();
+    lectura.get(5, TimeUnit.SECONDS);
+    borrado.get(5, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    // Assert
+    // Ninguno de los dos índices conserva la tarjeta borrada
+    assertThrows(TarjetaNotFoundException.class, () -> tarjetasCache.get(ID, this::cargar));
+    assertEquals(99L, tarjetasCache.getId(UUID_TARJETA, () -> 99L));
+  }
+
+  @Test
+  void concurrentMisses_ShouldLoadOnlyOnce() throws Exception {
+    // Arrange
+    int lectores = 16;
+    ExecutorService executor = Executors.newFixedThreadPool(lectores);
+    CountDownLatch salida = new CountDownLatch(1);
+    AtomicInteger cargas = new AtomicInteger();
+    List<Future<TarjetaResponseDto>> lecturas = new ArrayList<>();
+
+    // Act
+    for (int i = 0; i < lectores; i++) {
+      lecturas.add(executor.submit(() -> {
+        await(salida);
+        return tarjetasCache.get(ID, () -> {
+          cargas.incrementAndGet();
+          // Una consulta lenta, para que el resto de lectores lleguen mientras se carga
+          await(new CountDownLatch(1), 50);
+          return cargar();
+        });
+      }));
+    }
+    salida.countDown();
+    for (Future<TarjetaResponseDto> lectura : lecturas) {
+      assertEquals(Dinero.ofCentimos(10000), lectura.get(5, TimeUnit.SECONDS).getSaldo());
+    }
+    executor.shutdown();
+
+    // Assert
+    assertEquals(1, cargas.get());
+  }
+
+  @Test
+  void concurrentReadsAndUpdates_ShouldEndWithLastVersion() throws Exception {
+    // Arrange
+    int lectores = 8;
+    int actualizaciones = 500;
+    ExecutorService executor = Executors.newFixedThreadPool(lectores + 1);
+    CountDownLatch salida = new CountDownLatch(1);
+    List<Future<?>> tareas = new ArrayList<>();
+
+    // Act
+    for (int i = 0; i < lectores; i++) {
+      tareas.add(executor.submit(() -> {
+        await(salida);
+        for (int j = 0; j < actualizaciones; j++) {
+          var leida = tarjetasCache.get(ID, this::cargar);
+          // Nunca se lee una versión más nueva que la de la base de datos
+          assertTrue(leida.getSaldo().compareTo(baseDatos.get().getSaldo()) <= 0);
+          if (j % 10 == 0) {
+            tarjetasCache.evict(ID, UUID_TARJETA);
+          }
+        }
+      }));
+    }
+    tareas.add(executor.submit(() -> {
+      await(salida);
+      for (int j = 1; j <= actualizaciones; j++) {
+        baseDatos.set(tarjeta(10000 + j));
+        tarjetasCache.put(baseDatos.get());
+      }
+    }));
+    salida.countDown();
+    for (Future<?> tarea : tareas) {
+      tarea.get(30, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+
+    // Assert
+    // Tras la última actualización, la caché tiene la versión de la base de datos
+    assertEquals(baseDatos.get().getSaldo(), tarjetasCache.get(ID, this::cargar).getSaldo());
+  }
+
+  private static void await(CountDownLatch latch) {
+    await(latch, 5000);
+  }
+
+  private static void await(CountDownLatch latch, long millis) {
+    try {
+      latch.await(millis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
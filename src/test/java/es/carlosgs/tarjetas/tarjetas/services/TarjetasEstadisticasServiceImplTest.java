@@ -0,0 +1,100 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.paginacion.PaginasPorClave;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadRequestException;
+import es.carlosgs.tarjetas.tarjetas.mappers.TarjetaMapper;
+import es.carlosgs.tarjetas.tarjetas.mappers.TarjetasEstadisticasMapper;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.repositories.SaldoTitular;
+import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasRepository;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TarjetasEstadisticasServiceImplTest {
+
+  @Mock
+  private TarjetasRepository tarjetasRepository;
+  @Spy
+  private TarjetasEstadisticasMapper estadisticasMapper;
+  @Spy
+  private TarjetaMapper tarjetaMapper = new TarjetaMapper(new NumerosTarjeta("secreto-de-pruebas"));
+
+  @InjectMocks
+  private TarjetasEstadisticasServiceImpl estadisticasService;
+
+  private SaldoTitular saldo(long titularId, String saldoTotal) {
+    var saldo = mock(SaldoTitular.class);
+    lenient().when(saldo.getTitularId()).thenReturn(titularId);
+    lenient().when(saldo.getTitular()).thenReturn("Titular " + titularId);
+    lenient().when(saldo.getTarjetas()).thenReturn(1L);
+    lenient().when(saldo.getSaldoTotal()).thenReturn(new BigDecimal(saldoTotal));
+    return saldo;
+  }
+
+  @Test
+  void getSaldosPorTitular_returnsPageWithNextCursor() {
+    // Arrange
+    // Se piden size + 1 para saber si hay página siguiente
+    var saldos = List.of(saldo(1L, "0"), saldo(2L, "100.00"), saldo(3L, "200.00"));
+    when(tarjetasRepository.sumSaldoByTitularIdGreaterThanGroupByTitular(0L, 3)).thenReturn(saldos);
+
+    // Act
+    var pagina = estadisticasService.getSaldosPorTitular(null, 2);
+
+    // Assert
+    assertAll(
+        () -> assertEquals(2, pagina.getSize()),
+        () -> assertEquals(2L, pagina.getContent().getLast().getTitularId()),
+        () -> assertEquals(Dinero.of("100.00"), pagina.getContent().getLast().getSaldoTotal()),
+        () -> assertEquals(PaginasPorClave.encodeCursor(2L), pagina.getNextCursor())
+    );
+  }
+
+  @Test
+  void getSaldosPorTitular_continuesFromCursor() {
+    // Arrange
+    var saldos = List.of(saldo(3L, "200.00"));
+    when(tarjetasRepository.sumSaldoByTitularIdGreaterThanGroupByTitular(2L, 3)).thenReturn(saldos);
+
+    // Act
+    var pagina = estadisticasService.getSaldosPorTitular(PaginasPorClave.encodeCursor(2L), 2);
+
+    // Assert
+    assertAll(
+        () -> assertEquals(1, pagina.getSize()),
+        () -> assertNull(pagina.getNextCursor())
+    );
+  }
+
+  @Test
+  void getSaldosPorTitular_throwsBadRequest_WhenCursorNotValid() {
+    // Act & Assert
+    assertThrows(TarjetaBadRequestException.class, () -> estadisticasService.getSaldosPorTitular("no-es-un-cursor", 2));
+
+    // Verify
+    verifyNoInteractions(tarjetasRepository);
+  }
+
+  @Test
+  void getSaldoByTitularId_throwsTitularNotFound_WhenTitularDoesNotExist() {
+    // Arrange
+    when(tarjetasRepository.sumSaldoByTitularId(-1L)).thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertThrows(TitularNotFoundException.class, () -> estadisticasService.getSaldoByTitularId(-1L));
+  }
+}
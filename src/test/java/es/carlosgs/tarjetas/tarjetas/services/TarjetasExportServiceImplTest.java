@@ -0,0 +1,100 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.config.TarjetasHuellaProperties;
+import es.carlosgs.tarjetas.tarjetas.mappers.TarjetaMapper;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.models.Titular;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Exportación contra la base de datos: las dos tarjetas de data.sql y una de un titular
+// con comas, comillas y un salto de línea en el nombre; la tarjeta borrada no se exporta
+@DataJpaTest
+@Import({TarjetasExportServiceImpl.class, TarjetaMapper.class, NumerosTarjeta.class})
+@EnableConfigurationProperties(TarjetasHuellaProperties.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class TarjetasExportServiceImplTest {
+  private static final String NOMBRE = "Ana \"la\", B\nC";
+  private static final String NUMERO_BORRADA = "1111-2222-3333-4441";
+
+  @Autowired
+  private TarjetasExportService tarjetasExportService;
+  @Autowired
+  private TestEntityManager entityManager;
+  @Autowired
+  private NumerosTarjeta numerosTarjeta;
+
+  @BeforeEach
+  void setUp() {
+    Titular titular = entityManager.persist(Titular.builder().nombre(NOMBRE).nombreNormalizado("ana").build());
+    tarjeta(titular, "1111-2222-3333-4440", false);
+    tarjeta(titular, NUMERO_BORRADA, true);
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private void tarjeta(Titular titular, String numero, boolean borrada) {
+    entityManager.persist(Tarjeta.builder()
+        .numero(numero)
+        .huella(numerosTarjeta.huella(numero))
+        .cvc("123")
+        .fechaCaducidad(LocalDate.of(2030, 12, 31))
+        .saldo(Dinero.of("10.50"))
+        .titular(titular)
+        .isDeleted(borrada)
+        .build());
+  }
+
+  @Test
+  void exportNdjson_writesOneLinePerActiveTarjeta() throws Exception {
+    // Arrange
+    var salida = new ByteArrayOutputStream();
+
+    // Act
+    long total = tarjetasExportService.exportNdjson(salida);
+
+    // Assert
+    // El salto de línea del nombre va escapado dentro del JSON, no parte la línea
+    String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+    assertAll(
+        () -> assertEquals(3L, total),
+        () -> assertEquals(3, lineas.length),
+        () -> assertTrue(lineas[2].contains("\"titular\":\"Ana \\\"la\\\", B\\nC\"")),
+        () -> assertFalse(salida.toString(StandardCharsets.UTF_8).contains(NUMERO_BORRADA))
+    );
+  }
+
+  @Test
+  void exportCsv_writesHeaderAndEscapesFields() throws Exception {
+    // Arrange
+    var salida = new ByteArrayOutputStream();
+
+    // Act
+    long total = tarjetasExportService.exportCsv(salida);
+
+    // Assert
+    String csv = salida.toString(StandardCharsets.UTF_8);
+    assertAll(
+        () -> assertEquals(3L, total),
+        () -> assertTrue(csv.startsWith("id,uuid,numero,cvc,fechaCaducidad,titular,saldo,createdAt,updatedAt\n")),
+        // Entre comillas, con las comillas duplicadas y el salto de línea dentro del campo
+        () -> assertTrue(csv.contains(",1111-2222-3333-4440,123,2030-12-31,\"Ana \"\"la\"\", B\nC\",10.50,")),
+        () -> assertFalse(csv.contains(NUMERO_BORRADA))
+    );
+  }
+}
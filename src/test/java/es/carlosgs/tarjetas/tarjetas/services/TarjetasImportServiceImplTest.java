@@ -0,0 +1,129 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.carlosgs.tarjetas.config.TarjetasHuellaProperties;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaBulkResponseDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
+import es.carlosgs.tarjetas.tarjetas.mappers.TarjetaMapper;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularNotFoundException;
+import es.carlosgs.tarjetas.titulares.models.Titular;
+import es.carlosgs.tarjetas.titulares.services.TitularesService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+// Importación contra la base de datos, sin la transacción del test: cada lote se confirma en la suya
+// y un lote que falla no deja la transacción del test marcada para deshacer
+// Las tarjetas importadas se borran al terminar, dejando solo las de data.sql
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TarjetasImportServiceImpl.class, TarjetaMapper.class, NumerosTarjeta.class})
+@EnableConfigurationProperties(TarjetasHuellaProperties.class)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+class TarjetasImportServiceImplTest {
+  private static final String FILA = """
+      {"numero": "1234-5678-1234-5678", "cvc": "123", "fechaCaducidad": "2099-12-31", "titular": "%s", "saldo": 10.0}""";
+
+  @Autowired
+  private TarjetasImportService tarjetasImportService;
+  @Autowired
+  private ObjectMapper objectMapper;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @MockitoBean
+  private TitularesService titularesService;
+
+  @BeforeEach
+  void setUp() {
+    // Jose es el titular 2 de data.sql; Fantasma tiene un id que no existe y hace fallar la clave ajena al insertar
+    when(titularesService.findByNombre(anyString())).thenThrow(new TitularNotFoundException("Nadie"));
+    // doReturn no invoca el mock al apilar, así que no salta la excepción del stub genérico
+    doReturn(Titular.builder().id(2L).nombre("Jose").build()).when(titularesService).findByNombre("Jose");
+    doReturn(Titular.builder().id(999L).nombre("Fantasma").build()).when(titularesService).findByNombre("Fantasma");
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("DELETE FROM TARJETAS WHERE id > 2");
+  }
+
+  private TarjetaBulkResponseDto importar(String json) throws Exception {
+    try (MappingIterator<TarjetaCreateDto> tarjetas = objectMapper.readerFor(TarjetaCreateDto.class).readValues(json)) {
+      return tarjetasImportService.saveAll(tarjetas);
+    }
+  }
+
+  private long tarjetasImportadas() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TARJETAS WHERE id > 2", Long.class);
+  }
+
+  @Test
+  void saveAll_reportsUnreadableRowAndContinues() throws Exception {
+    // Act
+    var resumen = importar("[" + FILA.formatted("Jose") + ", "
+        + "{\"numero\": \"1234-5678-1234-5678\", \"saldo\": \"abc\"}, "
+        + FILA.formatted("Jose") + "]");
+
+    // Assert
+    assertAll(
+        () -> assertEquals(3, resumen.getTotal()),
+        () -> assertEquals(2, resumen.getInsertadas()),
+        () -> assertEquals(1, resumen.getErrores().size()),
+        () -> assertEquals(1, resumen.getErrores().getFirst().getIndice()),
+        () -> assertEquals(2L, tarjetasImportadas())
+    );
+  }
+
+  @Test
+  void saveAll_keepsRowsBeforeMalformedJson() throws Exception {
+    // Act
+    var resumen = importar("[" + FILA.formatted("Jose") + ", {\"numero\": ]");
+
+    // Assert
+    // La primera fila se guarda y el error dice en qué fila se dejó de leer
+    assertAll(
+        () -> assertEquals(1, resumen.getInsertadas()),
+        () -> assertEquals(1, resumen.getErrores().size()),
+        () -> assertEquals(1, resumen.getErrores().getFirst().getIndice()),
+        () -> assertEquals(1L, tarjetasImportadas())
+    );
+  }
+
+  @Test
+  void saveAll_retriesFailedBatchRowByRow() throws Exception {
+    // Act
+    var resumen = importar("[" + FILA.formatted("Jose") + ", " + FILA.formatted("Fantasma") + ", "
+        + FILA.formatted("Nadie") + ", " + FILA.formatted("Jose") + "]");
+
+    // Assert
+    // El lote falla por Fantasma, se reintenta fila a fila y solo se pierde esa; Nadie falla antes, al validar
+    assertAll(
+        () -> assertEquals(4, resumen.getTotal()),
+        () -> assertEquals(2, resumen.getInsertadas()),
+        () -> assertEquals(2, resumen.getErrores().size()),
+        () -> assertEquals(1, resumen.getErrores().get(0).getIndice()),
+        () -> assertTrue(resumen.getErrores().get(0).getErrores().containsKey("tarjeta")),
+        () -> assertEquals(2, resumen.getErrores().get(1).getIndice()),
+        () -> assertTrue(resumen.getErrores().get(1).getErrores().containsKey("titular")),
+        () -> assertEquals(2L, tarjetasImportadas())
+    );
+  }
+}
@@ -0,0 +1,149 @@
+package es.carlosgs.tarjetas.tarjetas.services;
+
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadUuidException;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaNotFoundException;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
+import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasReactiveRepository;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Las lecturas reactivas se comprueban esperando el resultado con block()
+@ExtendWith(MockitoExtension.class)
+class TarjetasReactiveServiceImplTest {
+
+  private final TarjetaResponseDto tarjeta = TarjetaResponseDto.builder()
+      .id(1L)
+      .numero("1234-5678-1234-5678")
+      .cvc("555")
+      .fechaCaducidad(LocalDate.of(2025, 12, 31))
+      .titular("Jose")
+      .saldo(Dinero.of("100.00"))
+      .uuid(UUID.fromString("57727bc2-0c1c-494e-bbaf-e952a778e478"))
+      .version(0L)
+      .build();
+
+  @Mock
+  private TarjetasReactiveRepository tarjetasReactiveRepository;
+  @Spy
+  private TarjetasCache tarjetasCache = new TarjetasCache(new ConcurrentMapCacheManager());
+  @Spy
+  private NumerosTarjeta numerosTarjeta = new NumerosTarjeta("secreto-de-pruebas");
+  @InjectMocks
+  private TarjetasReactiveServiceImpl tarjetasReactiveService;
+
+  @Test
+  void findAll_ShouldStreamByHuella_WhenNumeroProvided() {
+    // Arrange
+    String huella = numerosTarjeta.huella(tarjeta.getNumero());
+    when(tarjetasReactiveRepository.findAllResponsesByHuella(huella)).thenReturn(Flux.just(tarjeta));
+
+    // Act
+    List<TarjetaResponseDto> tarjetas = tarjetasReactiveService.findAll(tarjeta.getNumero(), null).collectList().block();
+
+    // Assert
+    assertEquals(List.of(tarjeta), tarjetas);
+  }
+
+  @Test
+  void findAll_ShouldStreamByTrigramas_WhenTitularProvided() {
+    // Arrange
+    when(tarjetasReactiveRepository.findAllResponsesByTitularTrigramas(Set.of("jos", "ose"), "jose"))
+        .thenReturn(Flux.just(tarjeta));
+
+    // Act
+    List<TarjetaResponseDto> tarjetas = tarjetasReactiveService.findAll(null, " JOSE ").collectList().block();
+
+    // Assert
+    assertEquals(List.of(tarjeta), tarjetas);
+
+    // Verify
+    // El mismo índice de trigramas que la búsqueda paginada, sin recorrer todos los titulares
+    verify(tarjetasReactiveRepository, only()).findAllResponsesByTitularTrigramas(Set.of("jos", "ose"), "jose");
+  }
+
+  @Test
+  void findAll_ShouldStreamByNombre_WhenTitularShorterThanTrigrama() {
+    // Arrange
+    when(tarjetasReactiveRepository.findAllResponsesByTitularContaining("jo")).thenReturn(Flux.just(tarjeta));
+
+    // Act
+    List<TarjetaResponseDto> tarjetas = tarjetasReactiveService.findAll(null, "Jo").collectList().block();
+
+    // Assert
+    assertEquals(List.of(tarjeta), tarjetas);
+  }
+
+  @Test
+  void findAll_ShouldStreamByHuellaAndNombre_WhenNumeroAndTitularProvided() {
+    // Arrange
+    String huella = numerosTarjeta.huella(tarjeta.getNumero());
+    when(tarjetasReactiveRepository.findAllResponsesByHuellaAndTitularContaining(huella, "jose"))
+        .thenReturn(Flux.just(tarjeta));
+
+    // Act
+    List<TarjetaResponseDto> tarjetas = tarjetasReactiveService.findAll(tarjeta.getNumero(), "Jose")
+        .collectList().block();
+
+    // Assert
+    assertEquals(List.of(tarjeta), tarjetas);
+  }
+
+  @Test
+  void findById_ShouldNotQuery_WhenCached() {
+    // Arrange
+    tarjetasCache.put(tarjeta);
+
+    // Act
+    TarjetaResponseDto actual = tarjetasReactiveService.findById(1L).block();
+
+    // Assert
+    assertEquals(tarjeta, actual);
+    verifyNoInteractions(tarjetasReactiveRepository);
+  }
+
+  @Test
+  void findById_ShouldReadWithoutCaching_WhenNotCached() {
+    // Arrange
+    when(tarjetasReactiveRepository.findResponseById(1L)).thenReturn(Mono.just(tarjeta));
+
+    // Act
+    TarjetaResponseDto actual = tarjetasReactiveService.findById(1L).block();
+
+    // Assert
+    assertEquals(tarjeta, actual);
+    assertNull(tarjetasCache.getIfPresent(1L));
+  }
+
+  @Test
+  void findById_ShouldFailNotFound_WhenNotExists() {
+    // Arrange
+    when(tarjetasReactiveRepository.findResponseById(99L)).thenReturn(Mono.empty());
+
+    // Act & Assert
+    assertThrows(TarjetaNotFoundException.class, () -> tarjetasReactiveService.findById(99L).block());
+  }
+
+  @Test
+  void findByUuid_ShouldFailBadUuid_WhenUuidNotValid() {
+    // Act & Assert
+    assertThrows(TarjetaBadUuidException.class, () -> tarjetasReactiveService.findByUuid("no-es-un-uuid").block());
+    verifyNoInteractions(tarjetasReactiveRepository);
+  }
+}
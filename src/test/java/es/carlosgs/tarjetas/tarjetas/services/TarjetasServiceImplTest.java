@@ -1,25 +1,41 @@
 package es.carlosgs.tarjetas.tarjetas.services;
 
+import es.carlosgs.tarjetas.config.TarjetasBorradoProperties;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaCreateDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaLoteItemDto;
+import es.carlosgs.tarjetas.tarjetas.dto.TarjetaPageResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaResponseDto;
 import es.carlosgs.tarjetas.tarjetas.dto.TarjetaUpdateDto;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadRequestException;
 import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaBadUuidException;
 import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaNotFoundException;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaPreconditionFailedException;
+import es.carlosgs.tarjetas.tarjetas.exceptions.TarjetaSaldoInsuficienteException;
 import es.carlosgs.tarjetas.tarjetas.mappers.TarjetaMapper;
+import es.carlosgs.tarjetas.tarjetas.models.Dinero;
 import es.carlosgs.tarjetas.tarjetas.models.Tarjeta;
 import es.carlosgs.tarjetas.tarjetas.repositories.TarjetasRepository;
+import es.carlosgs.tarjetas.tarjetas.search.NumerosTarjeta;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularNotFoundException;
+import es.carlosgs.tarjetas.titulares.models.Titular;
+import es.carlosgs.tarjetas.titulares.services.TitularesService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Limit;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,8 +50,8 @@ class TarjetasServiceImplTest {
       .numero("1234-5678-1234-5678")
       .cvc("555")
       .fechaCaducidad(LocalDate.of(2025,12,31))
-      .titular("Jose")
-      .saldo(100.0)
+      .titular(Titular.builder().id(2L).nombre("Jose").nombreNormalizado("jose").build())
+      .saldo(Dinero.of("100.0"))
       .createdAt(LocalDateTime.now())
       .updatedAt(LocalDateTime.now())
       .uuid(UUID.fromString("57727bc2-0c1c-494e-bbaf-e952a778e478"))
@@ -46,8 +62,8 @@ class TarjetasServiceImplTest {
       .numero("4321-5678-1234-5678")
       .cvc("555")
       .fechaCaducidad(LocalDate.of(2025,12,31))
-      .titular("Juan")
-      .saldo(100.0)
+      .titular(Titular.builder().id(4L).nombre("Juan").nombreNormalizado("juan").build())
+      .saldo(Dinero.of("100.0"))
       .createdAt(LocalDateTime.now())
       .updatedAt(LocalDateTime.now())
       .uuid(UUID.fromString("b36835eb-e56a-4023-b058-52bfa600fee5"))
@@ -58,9 +74,21 @@ class TarjetasServiceImplTest {
   // usamos el repositorio totalmente simulado
   @Mock
   private TarjetasRepository tarjetasRepository;
+  // el servicio de titulares también simulado
+  @Mock
+  private TitularesService titularesService;
+  // huella de los números con un secreto de pruebas
+  @Spy
+  private NumerosTarjeta numerosTarjeta = new NumerosTarjeta("secreto-de-pruebas");
   // usamos el mapper real aunque en modo espía que nos permite simular algunas partes del mismo
   @Spy
-  private TarjetaMapper tarjetaMapper;
+  private TarjetaMapper tarjetaMapper = new TarjetaMapper(numerosTarjeta);
+  // caché real sobre mapas en memoria, nueva en cada test
+  @Spy
+  private TarjetasCache tarjetasCache = new TarjetasCache(new ConcurrentMapCacheManager());
+  // configuración del borrado con sus valores por defecto (borrado lógico)
+  @Spy
+  private TarjetasBorradoProperties borradoProperties = new TarjetasBorradoProperties();
   // Es la clase que se testea y a la que se inyectan los mocks y espías automáticamente
   @InjectMocks
   private TarjetasServiceImpl tarjetasService;
@@ -80,17 +108,66 @@ class TarjetasServiceImplTest {
     // Arrange
     List<Tarjeta> expectedTarjetas = Arrays.asList(tarjeta1, tarjeta2);
     List<TarjetaResponseDto> expectedTarjetaResponses = tarjetaMapper.toResponseDtoList(expectedTarjetas);
-    when(tarjetasRepository.findAll()).thenReturn(expectedTarjetas);
+    when(tarjetasRepository.findResponsesByIdGreaterThan(0L, Limit.of(21))).thenReturn(expectedTarjetaResponses);
 
     // Act
-    List<TarjetaResponseDto> actualTarjetaResponses = tarjetasService.findAll(null, null);
+    TarjetaPageResponseDto actualPage = tarjetasService.findAll(null, null, null, null);
 
     // Assert
-    assertIterableEquals(expectedTarjetaResponses, actualTarjetaResponses);
+    assertIterableEquals(expectedTarjetaResponses, actualPage.getContent());
+    assertNull(actualPage.getNextCursor());
 
     // Verify
-    // verifica que findAll() se ejecuta una vez
-    verify(tarjetasRepository, times(1)).findAll();
+    // verifica que la búsqueda por clave se ejecuta una vez
+    verify(tarjetasRepository, times(1)).findResponsesByIdGreaterThan(0L, Limit.of(21));
+  }
+
+  @Test
+  void findAll_ShouldReturnNextCursor_WhenMoreTarjetasThanPageSize() {
+    // Arrange
+    List<TarjetaResponseDto> expectedTarjetaResponses = tarjetaMapper.toResponseDtoList(Arrays.asList(tarjeta1, tarjeta2));
+    when(tarjetasRepository.findResponsesByIdGreaterThan(0L, Limit.of(2))).thenReturn(expectedTarjetaResponses);
+
+    // Act
+    TarjetaPageResponseDto firstPage = tarjetasService.findAll(null, null, null, 1);
+
+    // Assert
+    assertAll(
+        () -> assertEquals(1, firstPage.getSize()),
+        () -> assertEquals(tarjeta1.getId(), firstPage.getContent().getFirst().getId()),
+        () -> assertNotNull(firstPage.getNextCursor())
+    );
+
+    // El cursor devuelto continúa a partir del último id de la página
+    TarjetaResponseDto tarjetaResponse2 = tarjetaMapper.toTarjetaResponseDto(tarjeta2);
+    when(tarjetasRepository.findResponsesByIdGreaterThan(1L, Limit.of(2))).thenReturn(List.of(tarjetaResponse2));
+    TarjetaPageResponseDto secondPage = tarjetasService.findAll(null, null, firstPage.getNextCursor(), 1);
+    assertAll(
+        () -> assertEquals(tarjeta2.getId(), secondPage.getContent().getFirst().getId()),
+        () -> assertNull(secondPage.getNextCursor())
+    );
+  }
+
+  @Test
+  void findAll_ShouldCapPageSize_WhenSizeTooBig() {
+    // Arrange
+    when(tarjetasRepository.findResponsesByIdGreaterThan(0L, Limit.of(101))).thenReturn(List.of());
+
+    // Act
+    tarjetasService.findAll(null, null, null, 10_000);
+
+    // Verify
+    verify(tarjetasRepository, only()).findResponsesByIdGreaterThan(0L, Limit.of(101));
+  }
+
+  @Test
+  void findAll_ShouldThrowTarjetaBadRequest_WhenInvalidCursorProvided() {
+    // Act & Assert
+    assertThatThrownBy(() -> tarjetasService.findAll(null, null, "no-es-un-cursor", null))
+        .isInstanceOf(TarjetaBadRequestException.class);
+
+    // Verify
+    verifyNoInteractions(tarjetasRepository);
   }
 
   @Test
@@ -99,35 +176,106 @@ class TarjetasServiceImplTest {
     String numero = "1234-5678-1234-5678";
     List<Tarjeta> expectedTarjetas = List.of(tarjeta1);
     List<TarjetaResponseDto> expectedTarjetaResponses = tarjetaMapper.toResponseDtoList(expectedTarjetas);
-    when(tarjetasRepository.findByNumero(numero)).thenReturn(expectedTarjetas);
+    String huella = numerosTarjeta.huella(numero);
+    when(tarjetasRepository.findResponsesByHuellaAndIdGreaterThan(huella, 0L, Limit.of(21)))
+        .thenReturn(expectedTarjetaResponses);
 
     // Act
-    List<TarjetaResponseDto> actualTarjetaResponses = tarjetasService.findAll(numero, null);
+    TarjetaPageResponseDto actualPage = tarjetasService.findAll(numero, null, null, null);
 
     // Assert
-    assertIterableEquals(expectedTarjetaResponses, actualTarjetaResponses);
+    assertIterableEquals(expectedTarjetaResponses, actualPage.getContent());
 
     // Verify
     // Verifica que solo se ejecuta este método
-    verify(tarjetasRepository, only()).findByNumero(numero);
+    verify(tarjetasRepository, only()).findResponsesByHuellaAndIdGreaterThan(huella, 0L, Limit.of(21));
+  }
+
+  @Test
+  void findAll_ShouldSearchSameHuella_WhenNumeroInOtherFormat() {
+    // Arrange
+    String huella = numerosTarjeta.huella("1234-5678-1234-5678");
+    when(tarjetasRepository.findResponsesByHuellaAndIdGreaterThan(huella, 0L, Limit.of(21)))
+        .thenReturn(List.of(tarjetaResponse1));
+
+    // Act
+    TarjetaPageResponseDto conEspacios = tarjetasService.findAll("1234 5678 1234 5678", null, null, null);
+    TarjetaPageResponseDto sinSeparadores = tarjetasService.findAll("1234567812345678", null, null, null);
+
+    // Assert
+    assertAll(
+        () -> assertEquals(List.of(tarjetaResponse1), conEspacios.getContent()),
+        () -> assertEquals(List.of(tarjetaResponse1), sinSeparadores.getContent())
+    );
   }
 
   @Test
   void findAll_ShouldReturnTarjetasByTitular_WhenTitularParameterProvided() {
     // Arrange
-    String titular = "Jose";
-    List<Tarjeta> expectedTarjetas = List.of(tarjeta1);
-    List<TarjetaResponseDto> expectedTarjetaResponses = tarjetaMapper.toResponseDtoList(expectedTarjetas);
-    when(tarjetasRepository.findByTitularContainsIgnoreCase(titular)).thenReturn(expectedTarjetas);
+    // Se normaliza y se busca con sus trigramas en una sola consulta
+    String titular = " JOSE ";
+    List<TarjetaResponseDto> expectedTarjetaResponses = tarjetaMapper.toResponseDtoList(List.of(tarjeta1));
+    when(tarjetasRepository.findResponsesByTitularTrigramasAndIdGreaterThan(Set.of("jos", "ose"), 2L, "jose", 0L,
+        Limit.of(21))).thenReturn(expectedTarjetaResponses);
 
     // Act
-    List<TarjetaResponseDto> actualTarjetaResponses = tarjetasService.findAll(null, titular);
+    TarjetaPageResponseDto actualPage = tarjetasService.findAll(null, titular, null, null);
 
     // Assert
-    assertIterableEquals(expectedTarjetaResponses, actualTarjetaResponses);
+    assertIterableEquals(expectedTarjetaResponses, actualPage.getContent());
 
     // Verify
-    verify(tarjetasRepository, only()).findByTitularContainsIgnoreCase(titular);
+    verify(tarjetasRepository, only()).findResponsesByTitularTrigramasAndIdGreaterThan(Set.of("jos", "ose"), 2L,
+        "jose", 0L, Limit.of(21));
+    verifyNoInteractions(titularesService);
+  }
+
+  @Test
+  void findAll_ShouldSearchWithoutTrigramas_WhenTitularShorterThanTrigrama() {
+    // Arrange
+    when(tarjetasRepository.findResponsesByTitularNombreContainingAndIdGreaterThan("jo", 0L, Limit.of(21)))
+        .thenReturn(List.of());
+
+    // Act
+    TarjetaPageResponseDto actualPage = tarjetasService.findAll(null, "Jo", null, null);
+
+    // Assert
+    assertTrue(actualPage.getContent().isEmpty());
+
+    // Verify
+    verify(tarjetasRepository, only()).findResponsesByTitularNombreContainingAndIdGreaterThan("jo", 0L, Limit.of(21));
+  }
+
+  @Test
+  void findAllByTitularId_ShouldReturnPageOfTitular() {
+    // Arrange
+    List<TarjetaResponseDto> expectedTarjetaResponses = List.of(tarjetaResponse1);
+    when(tarjetasRepository.findResponsesByTitularIdAndIdGreaterThan(2L, 0L, Limit.of(21)))
+        .thenReturn(expectedTarjetaResponses);
+
+    // Act
+    TarjetaPageResponseDto actualPage = tarjetasService.findAllByTitularId(2L, null, null);
+
+    // Assert
+    assertAll(
+        () -> assertIterableEquals(expectedTarjetaResponses, actualPage.getContent()),
+        () -> assertNull(actualPage.getNextCursor())
+    );
+
+    // Verify
+    verify(titularesService).findById(2L);
+    verify(tarjetasRepository, only()).findResponsesByTitularIdAndIdGreaterThan(2L, 0L, Limit.of(21));
+  }
+
+  @Test
+  void findAllByTitularId_ShouldThrowTitularNotFound_WhenTitularDoesNotExist() {
+    // Arrange
+    when(titularesService.findById(99L)).thenThrow(new TitularNotFoundException(99L));
+
+    // Act & Assert
+    assertThatThrownBy(() -> tarjetasService.findAllByTitularId(99L, null, null))
+        .isInstanceOf(TitularNotFoundException.class);
+    verifyNoInteractions(tarjetasRepository);
   }
 
   @Test
@@ -135,18 +283,20 @@ class TarjetasServiceImplTest {
     // Arrange
     String numero = "1234-5678-1234-5678";
     String titular = "Jose";
-    List<Tarjeta> expectedTarjetas = List.of(tarjeta1);
-    List<TarjetaResponseDto> expectedTarjetaResponses = tarjetaMapper.toResponseDtoList(expectedTarjetas);
-    when(tarjetasRepository.findByNumeroAndTitularContainsIgnoreCase(numero, titular)).thenReturn(expectedTarjetas);
+    List<TarjetaResponseDto> expectedTarjetaResponses = tarjetaMapper.toResponseDtoList(List.of(tarjeta1));
+    String huella = numerosTarjeta.huella(numero);
+    when(tarjetasRepository.findResponsesByHuellaAndTitularNombreContainingAndIdGreaterThan(huella, "jose", 0L,
+        Limit.of(21))).thenReturn(expectedTarjetaResponses);
 
     // Act
-    List<TarjetaResponseDto> actualTarjetaResponses = tarjetasService.findAll(numero, titular);
+    TarjetaPageResponseDto actualPage = tarjetasService.findAll(numero, titular, null, null);
 
     // Assert
-    assertIterableEquals(expectedTarjetaResponses, actualTarjetaResponses);
+    assertIterableEquals(expectedTarjetaResponses, actualPage.getContent());
 
     // Verify
-    verify(tarjetasRepository, only()).findByNumeroAndTitularContainsIgnoreCase(numero, titular);
+    verify(tarjetasRepository, only())
+        .findResponsesByHuellaAndTitularNombreContainingAndIdGreaterThan(huella, "jose", 0L, Limit.of(21));
   }
 
   @Test
@@ -154,7 +304,7 @@ class TarjetasServiceImplTest {
     // Arrange
     Long id = 1L;
     TarjetaResponseDto expectedTarjetaResponse = tarjetaResponse1;
-    when(tarjetasRepository.findById(id)).thenReturn(Optional.of(tarjeta1));
+    when(tarjetasRepository.findResponseById(id)).thenReturn(Optional.of(tarjetaResponse1));
 
     // Act
     TarjetaResponseDto actualTarjetaResponse = tarjetasService.findById(id);
@@ -163,14 +313,14 @@ class TarjetasServiceImplTest {
     assertEquals(expectedTarjetaResponse, actualTarjetaResponse);
 
     // Verify
-    verify(tarjetasRepository, only()).findById(id);
+    verify(tarjetasRepository, only()).findResponseById(id);
   }
 
   @Test
   void findById_ShouldThrowTarjetaNotFound_WhenInvalidIdProvided() {
     // Arrange
     Long id = 1L;
-    when(tarjetasRepository.findById(id)).thenReturn(Optional.empty());
+    when(tarjetasRepository.findResponseById(id)).thenReturn(Optional.empty());
 
     // Act & Assert
     var res = assertThrows(TarjetaNotFoundException.class, () -> tarjetasService.findById(id));
@@ -178,7 +328,7 @@ class TarjetasServiceImplTest {
 
     // Verify
     // verifica que se ejecuta el método
-    verify(tarjetasRepository).findById(id);
+    verify(tarjetasRepository).findResponseById(id);
   }
 
 
@@ -187,16 +337,35 @@ class TarjetasServiceImplTest {
     // Arrange
     UUID expectedUuid = tarjeta1.getUuid();
     TarjetaResponseDto expectedTarjetaResponse = tarjetaResponse1;
-    when(tarjetasRepository.findByUuid(expectedUuid)).thenReturn(Optional.of(tarjeta1));
+    when(tarjetasRepository.findIdByUuid(expectedUuid)).thenReturn(Optional.of(tarjeta1.getId()));
+    when(tarjetasRepository.findResponseById(tarjeta1.getId())).thenReturn(Optional.of(tarjetaResponse1));
 
     // Act
     TarjetaResponseDto actualTarjetaResponse = tarjetasService.findByUuid(expectedUuid.toString());
+    // La segunda vez sale de la caché
+    tarjetasService.findByUuid(expectedUuid.toString());
 
     // Assert
     assertEquals(expectedTarjetaResponse, actualTarjetaResponse);
 
     // Verify
-    verify(tarjetasRepository, only()).findByUuid(expectedUuid);
+    verify(tarjetasRepository, times(1)).findIdByUuid(expectedUuid);
+    verify(tarjetasRepository, times(1)).findResponseById(tarjeta1.getId());
+  }
+
+  @Test
+  void findByUuid_ShouldThrowTarjetaNotFound_WhenTarjetaDeletedAfterIndexed() {
+    // Arrange
+    UUID uuid = tarjeta1.getUuid();
+    when(tarjetasRepository.findIdByUuid(uuid)).thenReturn(Optional.of(tarjeta1.getId()));
+    when(tarjetasRepository.findResponseById(tarjeta1.getId())).thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertThrows(TarjetaNotFoundException.class, () -> tarjetasService.findByUuid(uuid.toString()));
+
+    // Verify
+    // la entrada del índice que apuntaba a la tarjeta borrada se invalida
+    verify(tarjetasCache).evictUuid(uuid);
   }
 
   @Test
@@ -210,7 +379,59 @@ class TarjetasServiceImplTest {
 
     // Verify
     // verifica que no se ha ejecutado
-    verify(tarjetasRepository, never()).findByUuid(any());
+    verify(tarjetasRepository, never()).findIdByUuid(any());
+  }
+
+  @Test
+  void findAllByIds_ShouldQueryOnlyMisses_AndKeepRequestOrder() {
+    // Arrange
+    // La 1 ya está en caché, la 2 se lee y la 99 no existe
+    tarjetasCache.put(tarjetaResponse1);
+    TarjetaResponseDto tarjetaResponse2 = tarjetaMapper.toTarjetaResponseDto(tarjeta2);
+    when(tarjetasRepository.findResponsesByIdIn(Set.of(2L, 99L))).thenReturn(List.of(tarjetaResponse2));
+
+    // Act
+    var tarjetas = tarjetasService.findAllByIds(List.of(2L, 99L, 1L, 2L));
+
+    // Assert
+    assertAll(
+        () -> assertEquals(List.of("2", "99", "1", "2"), tarjetas.stream().map(TarjetaLoteItemDto::getClave).toList()),
+        () -> assertEquals(tarjetaResponse2, tarjetas.get(0).getTarjeta()),
+        () -> assertFalse(tarjetas.get(1).isEncontrada()),
+        () -> assertNull(tarjetas.get(1).getTarjeta()),
+        () -> assertEquals(tarjetaResponse1, tarjetas.get(2).getTarjeta()),
+        () -> assertTrue(tarjetas.get(3).isEncontrada())
+    );
+
+    // Verify
+    // una sola consulta, sin las que estaban en caché ni repetidas
+    verify(tarjetasRepository, times(1)).findResponsesByIdIn(Set.of(2L, 99L));
+  }
+
+  @Test
+  void findAllByIds_ShouldThrowTarjetaBadRequest_WhenTooManyIds() {
+    // Arrange
+    List<Long> ids = LongStream.rangeClosed(1, 101).boxed().toList();
+
+    // Act & Assert
+    assertThrows(TarjetaBadRequestException.class, () -> tarjetasService.findAllByIds(ids));
+    verifyNoInteractions(tarjetasRepository);
+  }
+
+  @Test
+  void findAllByUuids_ShouldFillUuidIndex_WhenMisses() {
+    // Arrange
+    UUID uuid = tarjeta1.getUuid();
+    when(tarjetasRepository.findResponsesByUuidIn(Set.of(uuid))).thenReturn(List.of(tarjetaResponse1));
+
+    // Act
+    var tarjetas = tarjetasService.findAllByUuids(List.of(uuid.toString()));
+
+    // Assert
+    assertAll(
+        () -> assertEquals(tarjetaResponse1, tarjetas.getFirst().getTarjeta()),
+        () -> assertEquals(tarjeta1.getId(), tarjetasCache.getIdIfPresent(uuid))
+    );
   }
 
   @Test
@@ -221,21 +442,23 @@ class TarjetasServiceImplTest {
         .cvc("123")
         .fechaCaducidad(LocalDate.of(2025,12,31))
         .titular("Ana")
-        .saldo(123.0)
+        .saldo(Dinero.of("123.0"))
         .build();
+    Titular ana = Titular.builder().id(5L).nombre("Ana").nombreNormalizado("ana").build();
     Tarjeta expectedTarjeta = Tarjeta.builder()
         .id(1L)
         .numero("1111-2222-3333-4444")
         .cvc("123")
         .fechaCaducidad(LocalDate.of(2025,12,31))
-        .titular("Ana")
-        .saldo(123.0)
+        .titular(ana)
+        .saldo(Dinero.of("123.0"))
         .createdAt(LocalDateTime.now())
         .updatedAt(LocalDateTime.now())
         .uuid(UUID.randomUUID())
         .build();
     TarjetaResponseDto expectedTarjetaResponse = tarjetaMapper.toTarjetaResponseDto(expectedTarjeta);
 
+    when(titularesService.findByNombre("Ana")).thenReturn(ana);
     when(tarjetasRepository.save(any(Tarjeta.class))).thenReturn(expectedTarjeta);
 
     // Act
@@ -259,33 +482,52 @@ class TarjetasServiceImplTest {
   void update_ShouldReturnUpdatedTarjeta_WhenValidIdAndtarjetaUpdateDtoProvided() {
     // Arrange
     Long id = 1L;
-    Double saldo = 500.0;
-    when(tarjetasRepository.findById(id)).thenReturn(Optional.of(tarjeta1));
-
+    Dinero saldo = Dinero.of("500.00");
     TarjetaUpdateDto tarjetaUpdateDto = TarjetaUpdateDto.builder()
         .saldo(saldo)
         .build();
-    Tarjeta tarjetaUpdate = tarjetaMapper.toTarjeta(tarjetaUpdateDto,tarjeta1);
-    when(tarjetasRepository.save(any(Tarjeta.class))).thenReturn(tarjetaUpdate);
-
+    when(tarjetasRepository.updateById(eq(id), isNull(), isNull(), isNull(), isNull(), eq(saldo.toBigDecimal()), any(), isNull()))
+        .thenReturn(1);
     tarjetaResponse1.setSaldo(saldo);
     TarjetaResponseDto expectedTarjetaResponse = tarjetaResponse1;
+    when(tarjetasRepository.findResponseById(id)).thenReturn(Optional.of(tarjetaResponse1));
 
     // Act
     TarjetaResponseDto actualTarjetaResponse = tarjetasService.update(id, tarjetaUpdateDto);
 
     // Assert
-    // con Junit da error
-    //assertEquals(expectedTarjetaResponse, actualTarjetaResponse);
-    // con AssertJ podemos excluir algún campo
     assertThat(actualTarjetaResponse)
         .usingRecursiveComparison()
         .ignoringFields("updatedAt")
         .isEqualTo(expectedTarjetaResponse);
 
     // Verify
-    verify(tarjetasRepository).findById(id);
-    verify(tarjetasRepository).save(any());
+    // Una sentencia UPDATE y la lectura de la respuesta, sin cargar la entidad ni guardarla
+    verify(tarjetasRepository).updateById(eq(id), isNull(), isNull(), isNull(), isNull(), eq(saldo.toBigDecimal()), any(), isNull());
+    verify(tarjetasRepository).findResponseById(id);
+    verify(tarjetasRepository, never()).findById(any());
+    verify(tarjetasRepository, never()).save(any());
+  }
+
+  @Test
+  void updateById_ShouldNotReadTarjeta() {
+    // Arrange
+    Long id = 1L;
+    String numero = "1234 5678 1234 5678";
+    TarjetaUpdateDto tarjetaUpdateDto = TarjetaUpdateDto.builder()
+        .numero(numero)
+        .build();
+    String huella = numerosTarjeta.huella(numero);
+    when(tarjetasRepository.updateById(eq(id), eq(numero), eq(huella),
+        isNull(), isNull(), isNull(), any(), isNull())).thenReturn(1);
+
+    // Act
+    tarjetasService.updateById(id, tarjetaUpdateDto, null);
+
+    // Verify
+    verify(tarjetasRepository, only()).updateById(eq(id), eq(numero), eq(huella),
+        isNull(), isNull(), isNull(), any(), isNull());
+    verify(tarjetasCache).evict(id);
   }
 
   @Test
@@ -293,9 +535,9 @@ class TarjetasServiceImplTest {
     // Arrange
     Long id = 1L;
     TarjetaUpdateDto tarjetaUpdateDto = TarjetaUpdateDto.builder()
-        .saldo(500.0)
+        .saldo(Dinero.of("500.0"))
         .build();
-    when(tarjetasRepository.findById(id)).thenReturn(Optional.empty());
+    when(tarjetasRepository.updateById(eq(id), any(), any(), any(), any(), any(), any(), any())).thenReturn(0);
 
     // Act & Assert
     // con AssertJ
@@ -309,15 +551,40 @@ class TarjetasServiceImplTest {
     //assertEquals("Tarjeta con id " + id + " no encontrada", res.getMessage());
 
     // Verify
-    verify(tarjetasRepository).findById(id);
-    verify(tarjetasRepository, never()).save(any());
+    verify(tarjetasRepository, never()).findResponseById(id);
+  }
+
+  @Test
+  void update_ShouldThrowPreconditionFailed_WhenVersionChanged() {
+    // Arrange
+    Long id = 1L;
+    TarjetaUpdateDto tarjetaUpdateDto = TarjetaUpdateDto.builder().saldo(Dinero.of("500.0")).build();
+    when(tarjetasRepository.updateById(eq(id), any(), any(), any(), any(), any(), any(), eq(3L))).thenReturn(0);
+    when(tarjetasRepository.existsById(id)).thenReturn(true);
+
+    // Act & Assert
+    assertThatThrownBy(() -> tarjetasService.update(id, tarjetaUpdateDto, 3L))
+        .isInstanceOf(TarjetaPreconditionFailedException.class);
+  }
+
+  @Test
+  void cargar_ShouldThrowSaldoInsuficiente_WhenNotEnoughSaldo() {
+    // Arrange
+    Long id = 1L;
+    when(tarjetasRepository.subtractSaldoById(eq(id), eq(new BigDecimal("1000.00")), any())).thenReturn(0);
+    when(tarjetasRepository.existsById(id)).thenReturn(true);
+
+    // Act & Assert
+    assertThatThrownBy(() -> tarjetasService.cargar(id, Dinero.of("1000.00")))
+        .isInstanceOf(TarjetaSaldoInsuficienteException.class);
+    verify(tarjetasCache, never()).evict(id);
   }
 
   @Test
   void deleteById_ShouldDeleteTarjeta_WhenValidIdProvided() {
     // Arrange
     Long id = 1L;
-    when(tarjetasRepository.findById(id)).thenReturn(Optional.of(tarjeta1));
+    when(tarjetasRepository.updateIsDeletedToTrueById(id)).thenReturn(1);
 
     // Act
     // con AssertJ
@@ -325,14 +592,53 @@ class TarjetasServiceImplTest {
         .doesNotThrowAnyException();
 
     // Assert
-    verify(tarjetasRepository).deleteById(id);
+    // Con borrado lógico (por defecto) es una sola sentencia UPDATE, sin leer la tarjeta
+    verify(tarjetasRepository, only()).updateIsDeletedToTrueById(id);
+    verify(tarjetasCache).evict(id);
+  }
+
+  @Test
+  void deleteById_ShouldEvictUuidIndex_WhenTarjetaCached() {
+    // Arrange
+    Long id = tarjeta1.getId();
+    UUID uuid = tarjeta1.getUuid();
+    tarjetasCache.put(tarjetaResponse1);
+    when(tarjetasRepository.updateIsDeletedToTrueById(id)).thenReturn(1);
+
+    // Act
+    tarjetasService.deleteById(id);
+
+    // Assert
+    // El uuid sale de la caché, sigue siendo una sola sentencia
+    assertAll(
+        () -> assertNull(tarjetasCache.getIfPresent(id)),
+        () -> assertNull(tarjetasCache.getIdIfPresent(uuid))
+    );
+
+    // Verify
+    verify(tarjetasRepository, only()).updateIsDeletedToTrueById(id);
+    verify(tarjetasCache).evict(id, uuid);
+  }
+
+  @Test
+  void deleteById_ShouldDeleteRow_WhenBorradoLogicoDisabled() {
+    // Arrange
+    Long id = 1L;
+    borradoProperties.setLogico(false);
+    when(tarjetasRepository.deleteByIdReturningCount(id)).thenReturn(1);
+
+    // Act
+    tarjetasService.deleteById(id);
+
+    // Assert
+    verify(tarjetasRepository, only()).deleteByIdReturningCount(id);
   }
 
   @Test
   void deleteById_ShouldThrowTarjetaNotFound_WhenInvalidIdProvided() {
     // Arrange
     Long id = 1L;
-    when(tarjetasRepository.findById(id)).thenReturn(Optional.empty());
+    when(tarjetasRepository.updateIsDeletedToTrueById(id)).thenReturn(0);
 
     // Act & Assert
     // con JUnit
@@ -344,6 +650,6 @@ class TarjetasServiceImplTest {
         .hasMessage("Tarjeta con id " + id + " no encontrada");
 
     // Verify
-    verify(tarjetasRepository, never()).deleteById(id);
+    verify(tarjetasCache, never()).evict(id);
   }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package es.carlosgs.tarjetas.tarjetas.validators;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditCardNumberValidatorTest {
+
+  // Campos anotados de los que sacamos la anotación para inicializar el validador
+  @CreditCardNumber
+  private String sinLuhn;
+  @CreditCardNumber(luhn = true)
+  private String conLuhn;
+
+  private final CreditCardNumberValidator validator = new CreditCardNumberValidator();
+  private final CreditCardNumberValidator validatorLuhn = new CreditCardNumberValidator();
+
+  @BeforeEach
+  void setUp() throws NoSuchFieldException {
+    validator.initialize(getClass().getDeclaredField("sinLuhn").getAnnotation(CreditCardNumber.class));
+    validatorLuhn.initialize(getClass().getDeclaredField("conLuhn").getAnnotation(CreditCardNumber.class));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"1234567812345678", "1234 5678 1234 5678", "1234-5678-1234-5678"})
+  void isValid_ShouldAcceptSupportedFormats(String numero) {
+    assertTrue(validator.isValid(numero, null));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "123456781234567", "12345678123456789", "1234-5678 1234-5678", "1234_5678_1234_5678",
+      "12345-678-1234-5678", "1234-5678-1234-567a", "123456781234567a", "1234 5678 1234 5678 "})
+  void isValid_ShouldRejectOtherFormats(String numero) {
+    assertFalse(validator.isValid(numero, null));
+  }
+
+  @Test
+  void isValid_ShouldAcceptNull() {
+    assertTrue(validator.isValid(null, null));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"4539578763621486", "4539 5787 6362 1486", "4539-5787-6362-1486"})
+  void isValid_ShouldAcceptValidLuhn_WhenLuhnEnabled(String numero) {
+    assertTrue(validatorLuhn.isValid(numero, null));
+  }
+
+  @Test
+  void isValid_ShouldRejectInvalidLuhn_WhenLuhnEnabled() {
+    assertAll(
+        () -> assertFalse(validatorLuhn.isValid("4539-5787-6362-1487", null)),
+        // Sin la opción solo se comprueba el formato
+        () -> assertTrue(validator.isValid("4539-5787-6362-1487", null))
+    );
+  }
+}
@@ -0,0 +1,100 @@
+package es.carlosgs.tarjetas.titulares.controllers;
+
+import es.carlosgs.tarjetas.paginacion.PaginasPorClave;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Paginación de titulares contra los tres titulares de data.sql (Carlos, Jose y María)
+@SpringBootTest
+@AutoConfigureMockMvc
+class TitularesRestControllerTest {
+
+    private final String ENDPOINT = "/api/v1/titulares";
+
+    @Autowired
+    private MockMvcTester mockMvcTester;
+
+    @Test
+    void getAll_ShouldReturnBadRequest_WhenSortPropertyNotAllowed() {
+        // Act
+        var result = mockMvcTester.get()
+                .uri(ENDPOINT + "?sort=nombreNormalizado")
+                .exchange();
+
+        // Assert
+        assertThat(result).hasStatus(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void getAll_ShouldCapPageSize() {
+        // Act
+        var result = mockMvcTester.get()
+                .uri(ENDPOINT + "?size=1000&sort=nombre")
+                .exchange();
+
+        // Assert
+        // spring.data.web.pageable.max-page-size=100
+        assertThat(result)
+                .hasStatusOk()
+                .bodyJson().satisfies(json -> {
+                    assertThat(json).extractingPath("$.page.size").isEqualTo(100);
+                    assertThat(json).extractingPath("$.content.length()").isEqualTo(3);
+                    assertThat(json).extractingPath("$.content[0].nombre").isEqualTo("Carlos");
+                });
+    }
+
+    @Test
+    void getAllByCursor_ShouldContinueFromCursor() {
+        // Act
+        var primera = mockMvcTester.get()
+                .uri(ENDPOINT + "/seek?size=2")
+                .exchange();
+        var segunda = mockMvcTester.get()
+                .uri(ENDPOINT + "/seek?size=2&cursor=" + PaginasPorClave.encodeCursor(2L))
+                .exchange();
+
+        // Assert
+        assertThat(primera)
+                .hasStatusOk()
+                .bodyJson().satisfies(json -> {
+                    assertThat(json).extractingPath("$.size").isEqualTo(2);
+                    assertThat(json).extractingPath("$.content[1].id").isEqualTo(2);
+                    assertThat(json).extractingPath("$.nextCursor").isEqualTo(PaginasPorClave.encodeCursor(2L));
+                });
+        assertThat(segunda)
+                .hasStatusOk()
+                .bodyJson().satisfies(json -> {
+                    assertThat(json).extractingPath("$.size").isEqualTo(1);
+                    assertThat(json).extractingPath("$.content[0].nombre").isEqualTo("María");
+                    assertThat(json).extractingPath("$.nextCursor").isNull();
+                });
+    }
+
+    @Test
+    void getAllByCursor_ShouldReturnBadRequest_WhenCursorNotValid() {
+        // Act
+        var result = mockMvcTester.get()
+                .uri(ENDPOINT + "/seek?cursor=no-es-un-cursor")
+                .exchange();
+
+        // Assert
+        assertThat(result).hasStatus(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void getAllByCursor_ShouldReturnBadRequest_WhenSizeLessThanOne() {
+        // Act
+        var result = mockMvcTester.get()
+                .uri(ENDPOINT + "/seek?size=0")
+                .exchange();
+
+        // Assert
+        assertThat(result).hasStatus(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,36 @@
+package es.carlosgs.tarjetas.titulares.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramasTest {
+
+    @Test
+    void normalizar_trimsAndLowercases() {
+        assertAll(
+                () -> assertEquals("josé luis", Trigramas.normalizar("  JoSÉ Luis ")),
+                () -> assertNull(Trigramas.normalizar(null))
+        );
+    }
+
+    @Test
+    void trigramas_returnsDistinctTrigramasInOrder() {
+        assertAll(
+                () -> assertEquals(List.of("jos", "ose"), List.copyOf(Trigramas.trigramas("jose"))),
+                // "aaa" aparece dos veces en "aaaa", pero se guarda una
+                () -> assertEquals(Set.of("aaa"), Trigramas.trigramas("aaaa"))
+        );
+    }
+
+    @Test
+    void trigramas_isEmpty_WhenShorterThanTrigrama() {
+        assertAll(
+                () -> assertTrue(Trigramas.trigramas("jo").isEmpty()),
+                () -> assertTrue(Trigramas.trigramas(null).isEmpty())
+        );
+    }
+}
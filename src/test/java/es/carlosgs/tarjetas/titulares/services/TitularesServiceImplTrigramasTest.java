@@ -0,0 +1,140 @@
+package es.carlosgs.tarjetas.titulares.services;
+
+import es.carlosgs.tarjetas.titulares.dto.TitularRequestDto;
+import es.carlosgs.tarjetas.titulares.exceptions.TitularConflictException;
+import es.carlosgs.tarjetas.titulares.mappers.TitularesMapper;
+import es.carlosgs.tarjetas.titulares.models.Titular;
+import es.carlosgs.tarjetas.titulares.models.TitularTrigrama;
+import es.carlosgs.tarjetas.titulares.repositories.TitularTrigramasRepository;
+import es.carlosgs.tarjetas.titulares.search.Trigramas;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Búsqueda por subcadena con el índice de trigramas contra la base de datos (titulares de data.sql y los que se crean)
+// reindexado del nombre al guardar y al renombrar, y unicidad del nombre normalizado
+@DataJpaTest
+@Import({TitularesServiceImpl.class, TitularesMapper.class})
+class TitularesServiceImplTrigramasTest {
+
+    @TestConfiguration
+    static class CacheTestConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+
+    @Autowired
+    private TitularesService titularesService;
+    @Autowired
+    private TitularTrigramasRepository titularTrigramasRepository;
+
+    private List<String> buscar(String nombre) {
+        return titularesService.findAll(nombre, PageRequest.of(0, 20, Sort.by("id"))).map(Titular::getNombre).getContent();
+    }
+
+    private Set<String> trigramasIndexados(Long titularId) {
+        return titularTrigramasRepository.findAll().stream()
+                .filter(trigrama -> trigrama.getTitularId().equals(titularId))
+                .map(TitularTrigrama::getTrigrama)
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    void findAll_matchesSubstringIgnoringCase() {
+        // Act & Assert
+        // "ría" solo está en María; "ose" en Jose; "xyz" en ninguno
+        assertAll(
+                () -> assertEquals(List.of("María"), buscar("RÍA")),
+                () -> assertEquals(List.of("Jose"), buscar(" ose ")),
+                () -> assertTrue(buscar("xyz").isEmpty())
+        );
+    }
+
+    @Test
+    void findAll_confirmsCandidatesAgainstNombre() {
+        // Arrange
+        // "Nana Ana" tiene los dos trigramas de "anana" (ana, nan), pero no contiene "anana"
+        titularesService.save(TitularRequestDto.builder().nombre("Nana Ana").build());
+        titularesService.save(TitularRequestDto.builder().nombre("Banana").build());
+
+        // Act & Assert
+        assertEquals(List.of("Banana"), buscar("anana"));
+    }
+
+    @Test
+    void findAll_matchesWithoutTrigramas_WhenShorterThanTrigrama() {
+        // Act & Assert
+        assertEquals(List.of("Carlos", "María"), buscar("ar"));
+    }
+
+    @Test
+    void save_indexesTrigramasOfNombreNormalizado() {
+        // Act
+        Titular titular = titularesService.save(TitularRequestDto.builder().nombre("Ana Belén").build());
+
+        // Assert
+        assertAll(
+                () -> assertEquals(Trigramas.trigramas("ana belén"), trigramasIndexados(titular.getId())),
+                () -> assertEquals(List.of("Ana Belén"), buscar("belén"))
+        );
+    }
+
+    @Test
+    void update_reindexesTrigramas_WhenRenamed() {
+        // Arrange
+        Titular titular = titularesService.save(TitularRequestDto.builder().nombre("Ana Belén").build());
+
+        // Act
+        titularesService.update(titular.getId(), TitularRequestDto.builder().nombre("Rosa").build());
+
+        // Assert
+        // Los trigramas del nombre anterior desaparecen y el nuevo nombre se encuentra
+        assertAll(
+                () -> assertEquals(Trigramas.trigramas("rosa"), trigramasIndexados(titular.getId())),
+                () -> assertTrue(buscar("belén").isEmpty()),
+                () -> assertEquals(List.of("Rosa"), buscar("ros"))
+        );
+    }
+
+    @Test
+    void save_throwsConflict_WhenNombreNormalizadoExists() {
+        // Act & Assert
+        // "JOSE " se normaliza a "jose", que ya es el titular 2 de data.sql
+        assertThrows(TitularConflictException.class,
+                () -> titularesService.save(TitularRequestDto.builder().nombre("JOSE ").build()));
+    }
+
+    @Test
+    void update_throwsConflict_WhenRenamedToOtherTitular() {
+        // Act & Assert
+        assertThrows(TitularConflictException.class,
+                () -> titularesService.update(3L, TitularRequestDto.builder().nombre("Jose").build()));
+    }
+
+    @Test
+    void update_changesCase_WhenSameTitular() {
+        // Act
+        Titular titular = titularesService.update(2L, TitularRequestDto.builder().nombre("JOSE").build());
+
+        // Assert
+        assertAll(
+                () -> assertEquals("JOSE", titular.getNombre()),
+                () -> assertEquals(2L, titularesService.findByNombre("jose").getId())
+        );
+    }
+}
@@ -1,15 +1,8 @@
--- Borra la tabla si existe
-drop table if exists TARJETAS;
--- Crea la tabla TARJETAS
-create table TARJETAS (
-    id bigint generated by default as identity PRIMARY KEY,
-    numero varchar(19) not null,
-    cvc varchar(3) not null,
-    fecha_caducidad date not null,
-    titular varchar(50) not null,
-    saldo float(53) not null,
-    is_deleted boolean default false,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP not null,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP not null,
-    uuid uuid not null unique
-);
\ No newline at end of file
+-- Deja las tarjetas de data.sql con uuids conocidos, para partir de una situación conocida
+-- La huella es la de NumerosTarjeta con el secreto de desarrollo, como en data.sql
+DELETE FROM TARJETAS;
+INSERT INTO TARJETAS (id, numero, huella, cvc, fecha_caducidad, titular_id, saldo, uuid, version)
+    VALUES (1, '1234-5678-1234-5678', '25d6a9a4b288bed7306419388675d7243ffb4db5a6c959facd953ea6e39a3152',
+            '555', '2025-12-31', 2, 100.00, '57727bc2-0c1c-494e-bbaf-e952a778e478', 0),
+         (2, '4321-5678-1234-5678', '6ae73bb615ab13106eaed830e0c2304aacc75d209cbf72ab3887a529be736354',
+            '555', '2025-12-31', 3, 100.00, 'b36835eb-e56a-4023-b058-52bfa600fee5', 0);